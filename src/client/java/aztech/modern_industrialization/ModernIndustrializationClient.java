@@ -24,6 +24,8 @@
 package aztech.modern_industrialization;
 
 import aztech.modern_industrialization.blocks.forgehammer.ForgeHammerScreen;
+import aztech.modern_industrialization.blocks.storage.ClientStoragePackets;
+import aztech.modern_industrialization.blocks.storage.StoragePackets;
 import aztech.modern_industrialization.blocks.storage.barrel.BarrelTooltipData;
 import aztech.modern_industrialization.blocks.storage.barrel.client.BarrelTooltipComponent;
 import aztech.modern_industrialization.blocks.storage.barrel.client.CreativeBarrelClientSetup;
@@ -129,11 +131,10 @@ public class ModernIndustrializationClient implements ClientModInitializer {
     }
 
     private void setupPackets() {
-        ClientPlayNetworking.registerGlobalReceiver(ConfigurableInventoryPackets.UPDATE_ITEM_SLOT,
-                ConfigurableInventoryS2CPacketHandlers.UPDATE_ITEM_SLOT);
-        ClientPlayNetworking.registerGlobalReceiver(ConfigurableInventoryPackets.UPDATE_FLUID_SLOT,
-                ConfigurableInventoryS2CPacketHandlers.UPDATE_FLUID_SLOT);
+        ClientPlayNetworking.registerGlobalReceiver(ConfigurableInventoryPackets.UPDATE_SLOTS, ConfigurableInventoryS2CPacketHandlers.UPDATE_SLOTS);
         ClientPlayNetworking.registerGlobalReceiver(MachinePackets.S2C.COMPONENT_SYNC, ClientMachinePackets.ON_COMPONENT_SYNC);
+        ClientPlayNetworking.registerGlobalReceiver(MachinePackets.S2C.COMPONENT_DELTA, ClientMachinePackets.ON_COMPONENT_DELTA);
+        ClientPlayNetworking.registerGlobalReceiver(StoragePackets.S2C.SYNC_CONTENTS, ClientStoragePackets.ON_SYNC_CONTENTS);
     }
 
     private void setupTooltips() {
@@ -21,31 +21,26 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-package aztech.modern_industrialization.inventory;
+package aztech.modern_industrialization.blocks.storage;
 
-import java.util.List;
-import java.util.Map;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.core.BlockPos;
 
-public abstract class ChangeListener {
-
-    protected abstract void onChange();
-
-    protected abstract boolean isValid(Object token); // TODO: do we really need the token? (it's unused for now)
-
-    public void listenAll(List<? extends AbstractConfigurableStack<?, ?>> stacks, Object token) {
-        for (var stack : stacks) {
-            stack.addListener(this, token);
-        }
-    }
-
-    public static void notify(Map<ChangeListener, Object> listeners) {
-        for (var it = listeners.entrySet().iterator(); it.hasNext();) {
-            var entry = it.next();
-            if (entry.getKey().isValid(entry.getValue())) {
-                entry.getKey().onChange();
-            } else {
-                it.remove();
+@Environment(EnvType.CLIENT)
+public class ClientStoragePackets {
+    public static final ClientPlayNetworking.PlayChannelHandler ON_SYNC_CONTENTS = (mc, handler, buf, sender) -> {
+        BlockPos pos = buf.readBlockPos();
+        buf.retain();
+        mc.execute(() -> {
+            try {
+                if (mc.level != null && mc.level.getBlockEntity(pos) instanceof AbstractStorageBlockEntity<?>storage) {
+                    storage.readContentSync(buf);
+                }
+            } finally {
+                buf.release();
             }
-        }
-    }
+        });
+    };
 }
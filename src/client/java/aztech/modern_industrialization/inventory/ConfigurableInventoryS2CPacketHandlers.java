@@ -23,64 +23,35 @@
  */
 package aztech.modern_industrialization.inventory;
 
+import java.util.List;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
-import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.inventory.AbstractContainerMenu;
-import net.minecraft.world.inventory.Slot;
 
 public class ConfigurableInventoryS2CPacketHandlers {
-    // sync id, slot id, slot tag
-    public static final ClientPlayNetworking.PlayChannelHandler UPDATE_ITEM_SLOT = (mc, handler, buf, sender) -> {
+    // sync id, changed item stacks, changed fluid stacks (see ConfigurableScreenHandler#broadcastChanges)
+    public static final ClientPlayNetworking.PlayChannelHandler UPDATE_SLOTS = (mc, handler, buf, sender) -> {
         int syncId = buf.readInt();
-        int stackId = buf.readInt();
-        CompoundTag tag = buf.readNbt();
+        buf.retain();
         mc.execute(() -> {
-            AbstractContainerMenu sh = mc.player.containerMenu;
-            if (sh.containerId == syncId) {
-                ConfigurableScreenHandler csh = (ConfigurableScreenHandler) sh;
-                ConfigurableItemStack oldStack = csh.inventory.getItemStacks().get(stackId);
-                // update stack
-                ConfigurableItemStack newStack = new ConfigurableItemStack(tag);
-                csh.inventory.getItemStacks().set(stackId, newStack);
-                // update slot
-                for (int i = 0; i < csh.slots.size(); ++i) {
-                    Slot slot = csh.slots.get(i);
-                    if (slot instanceof ConfigurableItemStack.ConfigurableItemSlot is) {
-                        if (is.getConfStack() == oldStack) {
-                            csh.slots.set(i, newStack.new ConfigurableItemSlot(is));
-                            return;
-                        }
-                    }
+            try {
+                AbstractContainerMenu sh = mc.player.containerMenu;
+                if (sh.containerId == syncId) {
+                    ConfigurableScreenHandler csh = (ConfigurableScreenHandler) sh;
+                    readChanges(buf, csh.inventory.getItemStacks());
+                    readChanges(buf, csh.inventory.getFluidStacks());
                 }
-                throw new RuntimeException("Could not find slot to replace!");
-            }
-        });
-    };
-    // sync id, slot id, slot tag
-    public static final ClientPlayNetworking.PlayChannelHandler UPDATE_FLUID_SLOT = (mc, handler, buf, sender) -> {
-        int syncId = buf.readInt();
-        int stackId = buf.readInt();
-        CompoundTag tag = buf.readNbt();
-        mc.execute(() -> {
-            AbstractContainerMenu sh = mc.player.containerMenu;
-            if (sh.containerId == syncId) {
-                ConfigurableScreenHandler csh = (ConfigurableScreenHandler) sh;
-                ConfigurableFluidStack oldStack = csh.inventory.getFluidStacks().get(stackId);
-                // update stack
-                ConfigurableFluidStack newStack = new ConfigurableFluidStack(tag);
-                csh.inventory.getFluidStacks().set(stackId, newStack);
-                // update slot
-                for (int i = 0; i < csh.slots.size(); ++i) {
-                    Slot slot = csh.slots.get(i);
-                    if (slot instanceof ConfigurableFluidStack.ConfigurableFluidSlot fs) {
-                        if (fs.getConfStack() == oldStack) {
-                            csh.slots.set(i, newStack.new ConfigurableFluidSlot(fs));
-                            return;
-                        }
-                    }
-                }
-                throw new RuntimeException("Could not find slot to replace!");
+            } finally {
+                buf.release();
             }
         });
     };
+
+    private static void readChanges(FriendlyByteBuf buf, List<? extends AbstractConfigurableStack<?, ?>> stacks) {
+        for (int index = buf.readVarInt(); index != 0; index = buf.readVarInt()) {
+            int mask = buf.readByte();
+            // stacks are updated in place, the slots keep referencing them
+            stacks.get(index - 1).readSyncDelta(mask, buf);
+        }
+    }
 }
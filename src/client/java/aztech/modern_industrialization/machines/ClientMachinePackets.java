@@ -27,18 +27,39 @@ import aztech.modern_industrialization.machines.gui.MachineMenuClient;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
 
 @Environment(EnvType.CLIENT)
 public class ClientMachinePackets {
+    // sync id, then (component index + 1, data length, data) for every synced component, followed by a 0
     public static final ClientPlayNetworking.PlayChannelHandler ON_COMPONENT_SYNC = (mc, handler, buf, sender) -> {
         int syncId = buf.readInt();
-        int componentIndex = buf.readInt();
         buf.retain();
         mc.execute(() -> {
             try {
                 if (mc.player.containerMenu.containerId == syncId) {
                     MachineMenuClient screenHandler = (MachineMenuClient) mc.player.containerMenu;
-                    screenHandler.components.get(componentIndex).readCurrentData(buf);
+                    for (int index = buf.readVarInt(); index != 0; index = buf.readVarInt()) {
+                        int length = buf.readInt();
+                        FriendlyByteBuf componentBuf = new FriendlyByteBuf(buf.readSlice(length));
+                        screenHandler.components.get(index - 1).readCurrentData(componentBuf);
+                    }
+                }
+            } finally {
+                buf.release();
+            }
+        });
+    };
+
+    // block pos, remesh flag, dirty component mask, then the data of every dirty component
+    public static final ClientPlayNetworking.PlayChannelHandler ON_COMPONENT_DELTA = (mc, handler, buf, sender) -> {
+        BlockPos pos = buf.readBlockPos();
+        buf.retain();
+        mc.execute(() -> {
+            try {
+                if (mc.level != null && mc.level.getBlockEntity(pos) instanceof MachineBlockEntity machine) {
+                    machine.readClientDelta(buf);
                 }
             } finally {
                 buf.release();
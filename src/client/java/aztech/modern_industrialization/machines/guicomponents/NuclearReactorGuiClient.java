@@ -69,22 +69,7 @@ public class NuclearReactorGuiClient implements GuiComponentClient {
 
     @Override
     public void readCurrentData(FriendlyByteBuf buf) {
-        boolean valid = buf.readBoolean();
-        if (valid) {
-            int sizeX = buf.readInt();
-            int sizeY = buf.readInt();
-            Optional<INuclearTileData>[] tilesData = new Optional[sizeX * sizeY];
-
-            for (int i = 0; i < sizeX * sizeY; i++) {
-                tilesData[i] = INuclearTileData.read(buf);
-            }
-            double euProduction = buf.readDouble();
-            double euFuelConsumption = buf.readDouble();
-            data = new NuclearReactorGui.Data(true, sizeX, sizeY, tilesData, euProduction, euFuelConsumption);
-
-        } else {
-            data = new NuclearReactorGui.Data(false, 0, 0, null, 0, 0);
-        }
+        data = NuclearReactorGui.Data.read(buf, data);
     }
 
     @Override
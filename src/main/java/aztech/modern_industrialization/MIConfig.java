@@ -62,6 +62,12 @@ public class MIConfig implements ConfigData {
     @ConfigEntry.Gui.RequiresRestart
     @EnglishTranslation(value = "Color Water and Lava (Restart needed)")
     public boolean colorWaterLava = true;
+    @EnglishTranslation(value = "Use the expected neutron counts instead of random neutron walks in nuclear reactors (faster for large reactors)")
+    public boolean expectedValueNeutronTransport = false;
+    @EnglishTranslation(value = "Run the nuclear reactor simulations in parallel on worker threads")
+    public boolean offThreadNuclearSimulation = false;
+    @EnglishTranslation(value = "Minimum number of ticks between two syncs of the progress, energy, efficiency and temperature bars of an open machine screen")
+    public int machineGuiBarSyncInterval = 4;
     @EnglishTranslation(value = "Enable UNSUPPORTED and DANGEROUS debug commands")
     public boolean enableDebugCommands = false;
     @ConfigEntry.Gui.RequiresRestart
@@ -73,6 +79,8 @@ public class MIConfig implements ConfigData {
     @ConfigEntry.Gui.RequiresRestart
     @EnglishTranslation(value = "Enable the FTB Quests integration, if present (Restart needed)")
     public boolean enableFtbQuestsIntegration = true;
+    @EnglishTranslation(value = "Number of ticks between two submissions of the items produced by machines to FTB Quests")
+    public int ftbQuestsSubmissionInterval = 20;
     @ConfigEntry.Gui.RequiresRestart
     @EnglishTranslation(value = "Ore Generation Enabled (Restart needed)")
     public boolean generateOres = true;
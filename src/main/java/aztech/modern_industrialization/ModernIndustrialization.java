@@ -28,6 +28,7 @@ import aztech.modern_industrialization.api.WrenchableBlockEntity;
 import aztech.modern_industrialization.blocks.forgehammer.ForgeHammerScreenHandler;
 import aztech.modern_industrialization.blocks.storage.barrel.BarrelBlock;
 import aztech.modern_industrialization.compat.ae2.AECompatCondition;
+import aztech.modern_industrialization.compat.ftbquests.FTBQuestsFacade;
 import aztech.modern_industrialization.compat.kubejs.KubeJSProxy;
 import aztech.modern_industrialization.definition.BlockDefinition;
 import aztech.modern_industrialization.definition.FluidDefinition;
@@ -38,6 +39,7 @@ import aztech.modern_industrialization.items.armor.MIArmorEffects;
 import aztech.modern_industrialization.items.armor.MIKeyMap;
 import aztech.modern_industrialization.items.tools.QuantumSword;
 import aztech.modern_industrialization.machines.MachinePackets;
+import aztech.modern_industrialization.machines.MachineTickScheduler;
 import aztech.modern_industrialization.machines.gui.MachineMenuCommon;
 import aztech.modern_industrialization.machines.init.*;
 import aztech.modern_industrialization.machines.multiblocks.world.ChunkEventListeners;
@@ -45,9 +47,11 @@ import aztech.modern_industrialization.materials.MIMaterials;
 import aztech.modern_industrialization.misc.autotest.MIAutoTesting;
 import aztech.modern_industrialization.misc.guidebook.GuidebookEvents;
 import aztech.modern_industrialization.nuclear.FluidNuclearComponent;
+import aztech.modern_industrialization.nuclear.NuclearSimulationScheduler;
 import aztech.modern_industrialization.pipes.MIPipes;
 import aztech.modern_industrialization.proxy.CommonProxy;
 import aztech.modern_industrialization.stats.PlayerStatisticsData;
+import aztech.modern_industrialization.stats.StatisticsBuffer;
 import java.util.Comparator;
 import java.util.Map;
 import net.fabricmc.fabric.api.client.itemgroup.FabricItemGroupBuilder;
@@ -114,6 +118,10 @@ public class ModernIndustrialization {
         setupWrench();
 
         ChunkEventListeners.init();
+        NuclearSimulationScheduler.init();
+        StatisticsBuffer.init();
+        FTBQuestsFacade.INSTANCE.init();
+        MachineTickScheduler.init();
         ServerEntityWorldChangeEvents.AFTER_PLAYER_CHANGE_WORLD.register((player, oldWorld, newWorld) -> MIKeyMap.clear(player));
         ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
             MIKeyMap.clear(handler.player);
@@ -25,13 +25,14 @@ package aztech.modern_industrialization.api.energy;
 
 import aztech.modern_industrialization.MIConfig;
 import aztech.modern_industrialization.MIIdentifier;
+import aztech.modern_industrialization.compat.energy.CompatGuard;
+import aztech.modern_industrialization.compat.energy.TrStorageWrappers;
 import net.fabricmc.fabric.api.lookup.v1.block.BlockApiLookup;
 import net.fabricmc.fabric.api.lookup.v1.item.ItemApiLookup;
 import net.fabricmc.fabric.api.transfer.v1.context.ContainerItemContext;
 import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.minecraft.core.Direction;
 import team.reborn.energy.api.EnergyStorage;
-import team.reborn.energy.api.base.DelegatingEnergyStorage;
 import team.reborn.energy.api.base.LimitingEnergyStorage;
 
 public class EnergyApi {
@@ -40,8 +41,6 @@ public class EnergyApi {
     public static final ItemApiLookup<EnergyStorage, ContainerItemContext> ITEM = ItemApiLookup
             .get(new MIIdentifier("energy_storage"), EnergyStorage.class, ContainerItemContext.class);
 
-    private static final ThreadLocal<Boolean> IN_COMPAT = ThreadLocal.withInitial(() -> false);
-
     public static final MIEnergyStorage CREATIVE = new MIEnergyStorage.NoInsert() {
         @Override
         public boolean canConnect(CableTier cableTier) {
@@ -84,122 +83,88 @@ public class EnergyApi {
     }
 
     static {
+        CompatGuard.init();
+
         // Compat wrapper for TR energy
         if (MIConfig.getConfig().enableBidirectionalEnergyCompat) {
             EnergyStorage.SIDED.registerFallback((world, pos, state, blockEntity, context) -> {
-                if (IN_COMPAT.get()) {
+                if (!CompatGuard.enter()) {
                     return null;
                 }
 
-                IN_COMPAT.set(true);
                 try {
                     return SIDED.find(world, pos, state, blockEntity, context);
                 } finally {
-                    IN_COMPAT.set(false);
+                    CompatGuard.exit();
                 }
             });
             SIDED.registerFallback((world, pos, state, blockEntity, context) -> {
-                if (IN_COMPAT.get()) {
+                if (!CompatGuard.enter()) {
                     return null;
                 }
 
-                IN_COMPAT.set(true);
                 try {
                     EnergyStorage trStorage = EnergyStorage.SIDED.find(world, pos, state, blockEntity, context);
-                    return trStorage == null ? null : new WrappedTrStorage(trStorage);
+                    return trStorage == null ? null : TrStorageWrappers.wrap(blockEntity, context, trStorage);
                 } finally {
-                    IN_COMPAT.set(false);
+                    CompatGuard.exit();
                 }
             });
 
             EnergyStorage.ITEM.registerFallback((stack, ctx) -> {
-                if (IN_COMPAT.get()) {
+                if (!CompatGuard.enter()) {
                     return null;
                 }
 
-                IN_COMPAT.set(true);
                 try {
                     return ITEM.find(stack, ctx);
                 } finally {
-                    IN_COMPAT.set(false);
+                    CompatGuard.exit();
                 }
             });
             ITEM.registerFallback((stack, ctx) -> {
-                if (IN_COMPAT.get()) {
+                if (!CompatGuard.enter()) {
                     return null;
                 }
 
-                IN_COMPAT.set(true);
                 try {
                     return EnergyStorage.ITEM.find(stack, ctx);
                 } finally {
-                    IN_COMPAT.set(false);
+                    CompatGuard.exit();
                 }
             });
         } else {
             SIDED.registerFallback((world, pos, state, blockEntity, context) -> {
                 EnergyStorage trStorage = EnergyStorage.SIDED.find(world, pos, state, blockEntity, context);
-                return trStorage == null || !trStorage.supportsInsertion() ? null : new InsertOnlyTrStorage(trStorage);
+                if (trStorage == null || !trStorage.supportsInsertion()) {
+                    return null;
+                }
+                return TrStorageWrappers.wrapInsertOnly(blockEntity, context, trStorage);
             });
             ITEM.registerFallback((stack, ctx) -> {
-                if (IN_COMPAT.get()) {
+                if (!CompatGuard.enter()) {
                     return null;
                 }
 
-                IN_COMPAT.set(true);
                 try {
                     EnergyStorage trStorage = EnergyStorage.ITEM.find(stack, ctx);
                     return trStorage == null || !trStorage.supportsInsertion() ? null : new LimitingEnergyStorage(trStorage, Long.MAX_VALUE, 0);
                 } finally {
-                    IN_COMPAT.set(false);
+                    CompatGuard.exit();
                 }
             });
             EnergyStorage.ITEM.registerFallback((stack, ctx) -> {
-                if (IN_COMPAT.get()) {
+                if (!CompatGuard.enter()) {
                     return null;
                 }
 
-                IN_COMPAT.set(true);
                 try {
                     EnergyStorage miStorage = ITEM.find(stack, ctx);
                     return miStorage == null || !miStorage.supportsExtraction() ? null : new LimitingEnergyStorage(miStorage, 0, Long.MAX_VALUE);
                 } finally {
-                    IN_COMPAT.set(false);
+                    CompatGuard.exit();
                 }
             });
         }
     }
-
-    private record InsertOnlyTrStorage(EnergyStorage trStorage) implements MIEnergyStorage.NoExtract {
-        @Override
-        public boolean canConnect(CableTier cableTier) {
-            return true;
-        }
-
-        @Override
-        public long insert(long maxAmount, TransactionContext transaction) {
-            return trStorage.insert(maxAmount, transaction);
-        }
-
-        @Override
-        public long getAmount() {
-            return trStorage.getAmount();
-        }
-
-        @Override
-        public long getCapacity() {
-            return trStorage.getCapacity();
-        }
-    }
-
-    private static class WrappedTrStorage extends DelegatingEnergyStorage implements MIEnergyStorage {
-        public WrappedTrStorage(EnergyStorage backingStorage) {
-            super(backingStorage, null);
-        }
-
-        @Override
-        public boolean canConnect(CableTier cableTier) {
-            return true;
-        }
-    }
 }
@@ -29,6 +29,8 @@ import net.fabricmc.fabric.api.transfer.v1.storage.StorageUtil;
 import net.fabricmc.fabric.api.transfer.v1.storage.TransferVariant;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.BlockGetter;
 import net.minecraft.world.level.Level;
@@ -79,6 +81,15 @@ public class AbstractStorageBlock<T extends TransferVariant<?>> extends Block im
         return getStack(world.getBlockEntity(pos));
     }
 
+    @SuppressWarnings("deprecation")
+    @Override
+    public void tick(BlockState state, ServerLevel level, BlockPos pos, RandomSource random) {
+        // Used to coalesce the client syncs of the contents
+        if (level.getBlockEntity(pos) instanceof AbstractStorageBlockEntity<?>storageBlockEntity) {
+            storageBlockEntity.onScheduledTick();
+        }
+    }
+
     @Override
     public boolean hasAnalogOutputSignal(BlockState state) {
         return !behavior.isCreative();
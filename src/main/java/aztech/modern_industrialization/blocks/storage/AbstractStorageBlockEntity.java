@@ -26,6 +26,9 @@ package aztech.modern_industrialization.blocks.storage;
 import aztech.modern_industrialization.MIText;
 import aztech.modern_industrialization.api.FastBlockEntity;
 import aztech.modern_industrialization.api.WrenchableBlockEntity;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.fabric.api.transfer.v1.storage.StoragePreconditions;
 import net.fabricmc.fabric.api.transfer.v1.storage.TransferVariant;
 import net.fabricmc.fabric.api.transfer.v1.storage.base.ResourceAmount;
@@ -34,9 +37,11 @@ import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.fabricmc.fabric.api.transfer.v1.transaction.base.SnapshotParticipant;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientGamePacketListener;
 import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.entity.player.Player;
@@ -48,6 +53,11 @@ import org.jetbrains.annotations.Nullable;
 
 public abstract class AbstractStorageBlockEntity<T extends TransferVariant<?>> extends FastBlockEntity
         implements SingleSlotStorage<T>, WrenchableBlockEntity {
+    /**
+     * Minimum number of ticks between two syncs of the contents to the client.
+     * Changes that happen in between are coalesced into a single sync.
+     */
+    private static final int SYNC_INTERVAL = 5;
 
     @Override
     public long getVersion() {
@@ -58,6 +68,8 @@ public abstract class AbstractStorageBlockEntity<T extends TransferVariant<?>> e
     protected long amount;
     private long version;
     private boolean isLocked;
+    private long lastSyncTick = Long.MIN_VALUE;
+    private boolean syncScheduled = false;
 
     public final StorageBehaviour<T> behaviour;
 
@@ -78,7 +90,54 @@ public abstract class AbstractStorageBlockEntity<T extends TransferVariant<?>> e
         version++;
         setChanged();
         if (!level.isClientSide)
-            sync();
+            scheduleContentSync();
+    }
+
+    private void scheduleContentSync() {
+        if (syncScheduled) {
+            return;
+        }
+        long time = level.getGameTime();
+        long nextSyncTick = lastSyncTick + SYNC_INTERVAL;
+        if (time >= nextSyncTick) {
+            sendContentSync();
+        } else {
+            // Sync later, see AbstractStorageBlock#tick
+            syncScheduled = true;
+            level.scheduleTick(worldPosition, getBlockState().getBlock(), (int) (nextSyncTick - time));
+        }
+    }
+
+    void onScheduledTick() {
+        if (syncScheduled) {
+            syncScheduled = false;
+            sendContentSync();
+        }
+    }
+
+    /**
+     * Send the resource, amount and lock to the clients, instead of the full update
+     * tag.
+     */
+    private void sendContentSync() {
+        lastSyncTick = level.getGameTime();
+
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        buf.writeBlockPos(worldPosition);
+        resource.toPacket(buf);
+        buf.writeVarLong(amount);
+        buf.writeBoolean(isLocked);
+        var packet = ServerPlayNetworking.createS2CPacket(StoragePackets.S2C.SYNC_CONTENTS, buf);
+        for (ServerPlayer player : PlayerLookup.tracking(this)) {
+            player.connection.send(packet);
+        }
+    }
+
+    public void readContentSync(FriendlyByteBuf buf) {
+        resource = readResourceFromPacket(buf);
+        amount = buf.readVarLong();
+        isLocked = buf.readBoolean();
+        version++;
     }
 
     @Nullable
@@ -270,6 +329,8 @@ public abstract class AbstractStorageBlockEntity<T extends TransferVariant<?>> e
 
     public abstract T loadResource(CompoundTag tag);
 
+    protected abstract T readResourceFromPacket(FriendlyByteBuf buf);
+
     public abstract void saveResource(T resource, CompoundTag tag);
 
     public abstract T getBlankResource();
@@ -27,6 +27,7 @@ import aztech.modern_industrialization.blocks.storage.AbstractStorageBlockEntity
 import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 
@@ -48,6 +49,11 @@ public class BarrelBlockEntity extends AbstractStorageBlockEntity<ItemVariant> {
         return ItemVariant.fromNbt(tag.getCompound("item"));
     }
 
+    @Override
+    protected ItemVariant readResourceFromPacket(FriendlyByteBuf buf) {
+        return ItemVariant.fromPacket(buf);
+    }
+
     @Override
     public void saveResource(ItemVariant resource, CompoundTag tag) {
         tag.put("item", resource.toNbt());
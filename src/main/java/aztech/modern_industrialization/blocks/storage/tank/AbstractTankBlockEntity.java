@@ -28,6 +28,7 @@ import aztech.modern_industrialization.util.NbtHelper;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
@@ -45,6 +46,11 @@ public abstract class AbstractTankBlockEntity extends AbstractStorageBlockEntity
         return NbtHelper.getFluidCompatible(tag, "fluid");
     }
 
+    @Override
+    protected FluidVariant readResourceFromPacket(FriendlyByteBuf buf) {
+        return FluidVariant.fromPacket(buf);
+    }
+
     @Override
     public void saveResource(FluidVariant resource, CompoundTag tag) {
         NbtHelper.putFluid(tag, "fluid", getResource());
@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.compat.energy;
+
+import aztech.modern_industrialization.api.energy.EnergyApi;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Re-entrancy guard for the energy compat fallbacks, which look each other up.
+ *
+ * <p>
+ * The server thread does almost all the lookups, so its state is kept in a plain field instead of going through a
+ * {@link ThreadLocal} twice per lookup. Other threads still use a {@link ThreadLocal}.
+ */
+public final class CompatGuard {
+    private static final ThreadLocal<boolean[]> OTHER_THREADS = ThreadLocal.withInitial(() -> new boolean[1]);
+    @Nullable
+    private static volatile Thread serverThread = null;
+    private static boolean serverThreadInCompat = false;
+
+    private CompatGuard() {
+    }
+
+    /**
+     * Called once from the {@link EnergyApi} static initializer, which runs before the server starts.
+     */
+    public static void init() {
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> {
+            serverThreadInCompat = false;
+            serverThread = server.getRunningThread();
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> serverThread = null);
+    }
+
+    /**
+     * @return True if the current thread is the thread of the running server.
+     */
+    public static boolean isServerThread() {
+        return Thread.currentThread() == serverThread;
+    }
+
+    /**
+     * Enter a compat lookup. If this returns true, {@link #exit} must be called once the lookup is done.
+     *
+     * @return False if the current thread is already inside a compat lookup.
+     */
+    public static boolean enter() {
+        if (Thread.currentThread() == serverThread) {
+            if (serverThreadInCompat) {
+                return false;
+            }
+            serverThreadInCompat = true;
+            return true;
+        }
+
+        boolean[] inCompat = OTHER_THREADS.get();
+        if (inCompat[0]) {
+            return false;
+        }
+        inCompat[0] = true;
+        return true;
+    }
+
+    public static void exit() {
+        if (Thread.currentThread() == serverThread) {
+            serverThreadInCompat = false;
+        } else {
+            OTHER_THREADS.get()[0] = false;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.compat.energy;
+
+import aztech.modern_industrialization.api.energy.CableTier;
+import aztech.modern_industrialization.api.energy.MIEnergyStorage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import org.jetbrains.annotations.Nullable;
+import team.reborn.energy.api.EnergyStorage;
+
+/**
+ * MI views of TR energy storages, used by the {@code EnergyApi} compat fallbacks.
+ *
+ * <p>
+ * The wrappers are held by the block entity that exposes the TR storage, one per side, so that repeated lookups
+ * don't allocate. A wrapper always delegates to the storage returned by the last lookup of its block entity and
+ * side, which also covers providers that return a new storage for every lookup. The wrappers are only reused on the
+ * server thread, and are released together with their block entity.
+ */
+public final class TrStorageWrappers {
+    private static final int SIDES = Direction.values().length;
+
+    private TrStorageWrappers() {
+    }
+
+    /**
+     * Implemented by {@link BlockEntity} through a mixin.
+     */
+    public interface Holder {
+        @Nullable
+        Cache mi_getTrStorageWrappers();
+
+        void mi_setTrStorageWrappers(Cache cache);
+    }
+
+    public static final class Cache {
+        private final WrappedTrStorage[] wrapped = new WrappedTrStorage[SIDES];
+        private final InsertOnlyTrStorage[] insertOnly = new InsertOnlyTrStorage[SIDES];
+
+        private Cache() {
+        }
+    }
+
+    @Nullable
+    private static Cache getCache(@Nullable BlockEntity blockEntity, @Nullable Direction side) {
+        if (blockEntity == null || side == null || !CompatGuard.isServerThread()) {
+            return null;
+        }
+        Holder holder = (Holder) blockEntity;
+        Cache cache = holder.mi_getTrStorageWrappers();
+        if (cache == null) {
+            cache = new Cache();
+            holder.mi_setTrStorageWrappers(cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Return an MI view of a TR storage, supporting insertion and extraction.
+     */
+    public static MIEnergyStorage wrap(@Nullable BlockEntity blockEntity, @Nullable Direction side, EnergyStorage trStorage) {
+        Cache cache = getCache(blockEntity, side);
+        if (cache == null) {
+            return new WrappedTrStorage(trStorage);
+        }
+        WrappedTrStorage wrapper = cache.wrapped[side.get3DDataValue()];
+        if (wrapper == null) {
+            wrapper = cache.wrapped[side.get3DDataValue()] = new WrappedTrStorage(trStorage);
+        } else {
+            wrapper.trStorage = trStorage;
+        }
+        return wrapper;
+    }
+
+    /**
+     * Return an MI view of a TR storage, only supporting insertion.
+     */
+    public static MIEnergyStorage wrapInsertOnly(@Nullable BlockEntity blockEntity, @Nullable Direction side, EnergyStorage trStorage) {
+        Cache cache = getCache(blockEntity, side);
+        if (cache == null) {
+            return new InsertOnlyTrStorage(trStorage);
+        }
+        InsertOnlyTrStorage wrapper = cache.insertOnly[side.get3DDataValue()];
+        if (wrapper == null) {
+            wrapper = cache.insertOnly[side.get3DDataValue()] = new InsertOnlyTrStorage(trStorage);
+        } else {
+            wrapper.trStorage = trStorage;
+        }
+        return wrapper;
+    }
+
+    private static class InsertOnlyTrStorage implements MIEnergyStorage.NoExtract {
+        EnergyStorage trStorage;
+
+        InsertOnlyTrStorage(EnergyStorage trStorage) {
+            this.trStorage = trStorage;
+        }
+
+        @Override
+        public boolean canConnect(CableTier cableTier) {
+            return true;
+        }
+
+        @Override
+        public long insert(long maxAmount, TransactionContext transaction) {
+            return trStorage.insert(maxAmount, transaction);
+        }
+
+        @Override
+        public long getAmount() {
+            return trStorage.getAmount();
+        }
+
+        @Override
+        public long getCapacity() {
+            return trStorage.getCapacity();
+        }
+    }
+
+    private static class WrappedTrStorage implements MIEnergyStorage {
+        EnergyStorage trStorage;
+
+        WrappedTrStorage(EnergyStorage trStorage) {
+            this.trStorage = trStorage;
+        }
+
+        @Override
+        public boolean canConnect(CableTier cableTier) {
+            return true;
+        }
+
+        @Override
+        public boolean supportsInsertion() {
+            return trStorage.supportsInsertion();
+        }
+
+        @Override
+        public long insert(long maxAmount, TransactionContext transaction) {
+            return trStorage.insert(maxAmount, transaction);
+        }
+
+        @Override
+        public boolean supportsExtraction() {
+            return trStorage.supportsExtraction();
+        }
+
+        @Override
+        public long extract(long maxAmount, TransactionContext transaction) {
+            return trStorage.extract(maxAmount, transaction);
+        }
+
+        @Override
+        public long getAmount() {
+            return trStorage.getAmount();
+        }
+
+        @Override
+        public long getCapacity() {
+            return trStorage.getCapacity();
+        }
+    }
+}
@@ -45,5 +45,16 @@ public interface FTBQuestsFacade {
         };
     }
 
+    /**
+     * Register the server events of the integration. Called once during mod
+     * initialization.
+     */
+    default void init() {
+    }
+
+    /**
+     * Record items produced by a player. They are submitted to the quests of the
+     * team of the player every {@link MIConfig#ftbQuestsSubmissionInterval} ticks.
+     */
     void addCompleted(UUID uuid, Item item, long amount);
 }
@@ -23,34 +23,103 @@
  */
 package aztech.modern_industrialization.compat.ftbquests;
 
+import aztech.modern_industrialization.MIConfig;
 import dev.ftb.mods.ftbquests.item.MissingItem;
 import dev.ftb.mods.ftbquests.quest.ServerQuestFile;
+import dev.ftb.mods.ftbquests.quest.TeamData;
 import dev.ftb.mods.ftbquests.quest.task.ItemTask;
 import dev.ftb.mods.ftbteams.FTBTeamsAPI;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 
 public class FTBQuestsFacadeImpl implements FTBQuestsFacade {
+    // Completed items are buffered per player, and submitted per team every few ticks.
+    private final Map<UUID, Reference2LongOpenHashMap<Item>> pendingCompleted = new HashMap<>();
+    private int ticksUntilSubmission = 0;
+
+    @Override
+    public void init() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (--ticksUntilSubmission <= 0) {
+                ticksUntilSubmission = Math.max(1, MIConfig.getConfig().ftbQuestsSubmissionInterval);
+                submitPending();
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> submitPending());
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> pendingCompleted.clear());
+    }
+
     @Override
     public void addCompleted(UUID uuid, Item item, long amount) {
-        var file = ServerQuestFile.INSTANCE;
-        var data = file.getNullableTeamData(FTBTeamsAPI.getPlayerTeamID(uuid));
+        if (item instanceof MissingItem) {
+            return;
+        }
+        pendingCompleted.computeIfAbsent(uuid, u -> new Reference2LongOpenHashMap<>()).addTo(item, amount);
+    }
 
-        if (data == null || data.isLocked()) {
+    private void submitPending() {
+        if (pendingCompleted.isEmpty()) {
             return;
         }
 
-        ItemStack stack = new ItemStack(item, (int) amount);
+        var file = ServerQuestFile.INSTANCE;
+        if (file != null) {
+            // Merge the items of the players of each team.
+            Map<UUID, Reference2LongOpenHashMap<Item>> completedByTeam = new HashMap<>();
+            for (var entry : pendingCompleted.entrySet()) {
+                var teamCompleted = completedByTeam.computeIfAbsent(FTBTeamsAPI.getPlayerTeamID(entry.getKey()),
+                        teamId -> new Reference2LongOpenHashMap<>());
+                for (var itemEntry : entry.getValue().reference2LongEntrySet()) {
+                    teamCompleted.addTo(itemEntry.getKey(), itemEntry.getLongValue());
+                }
+            }
+
+            for (var entry : completedByTeam.entrySet()) {
+                var data = file.getNullableTeamData(entry.getKey());
+                if (data != null && !data.isLocked()) {
+                    submit(file, data, entry.getValue());
+                }
+            }
+        }
+
+        pendingCompleted.clear();
+    }
+
+    /**
+     * Add the progress of all the completed items of a team in one pass over the
+     * tasks.
+     */
+    private static void submit(ServerQuestFile file, TeamData data, Reference2LongMap<Item> completed) {
+        List<ItemStack> stacks = new ArrayList<>(completed.size());
+        long[] amounts = new long[completed.size()];
+        for (var entry : completed.reference2LongEntrySet()) {
+            amounts[stacks.size()] = entry.getLongValue();
+            stacks.add(new ItemStack(entry.getKey(), (int) Math.min(entry.getLongValue(), Integer.MAX_VALUE)));
+        }
 
         for (var task : file.getSubmitTasks()) {
             if (task instanceof ItemTask itemTask && data.canStartTasks(task.quest)) {
-                if (data.isCompleted(task) || itemTask.item.getItem() instanceof MissingItem || item instanceof MissingItem) {
+                if (data.isCompleted(task) || itemTask.item.getItem() instanceof MissingItem || task.consumesResources()) {
                     continue;
                 }
 
-                if (!task.consumesResources() && itemTask.test(stack)) {
-                    data.addProgress(task, amount);
+                long progress = 0;
+                for (int i = 0; i < stacks.size(); ++i) {
+                    if (itemTask.test(stacks.get(i))) {
+                        progress += amounts[i];
+                    }
+                }
+                if (progress > 0) {
+                    data.addProgress(task, progress);
                 }
             }
         }
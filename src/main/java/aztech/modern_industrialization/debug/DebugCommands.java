@@ -31,15 +31,23 @@ import static net.minecraft.commands.arguments.coordinates.BlockPosArgument.bloc
 import static net.minecraft.commands.arguments.coordinates.BlockPosArgument.getLoadedBlockPos;
 
 import aztech.modern_industrialization.MIConfig;
+import aztech.modern_industrialization.inventory.MIInventory;
 import aztech.modern_industrialization.machines.MachineBlockEntity;
+import aztech.modern_industrialization.machines.MachineTickScheduler;
+import aztech.modern_industrialization.machines.blockentities.multiblocks.NuclearReactorMultiblockBlockEntity;
 import aztech.modern_industrialization.pipes.MIPipes;
 import aztech.modern_industrialization.pipes.api.PipeNetworkType;
 import aztech.modern_industrialization.pipes.impl.PipeNetworks;
 import aztech.modern_industrialization.stats.PlayerStatisticsData;
+import aztech.modern_industrialization.stats.StatisticsBuffer;
 import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.LongArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
 import com.mojang.brigadier.suggestion.SuggestionProvider;
+import java.io.IOException;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.SharedSuggestionProvider;
@@ -55,6 +63,10 @@ public class DebugCommands {
         return SharedSuggestionProvider.suggestResource(PipeNetworkType.getTypes().keySet().stream(), builder);
     };
 
+    private static final SuggestionProvider<CommandSourceStack> NUCLEAR_DESIGNS_SUGGESTION_PROVIDER = (context, builder) -> {
+        return SharedSuggestionProvider.suggest(NuclearReplay.STANDARD_DESIGNS.keySet(), builder);
+    };
+
     // @formatter:off
     public static void init() {
         CommandRegistrationCallback.EVENT.register((dispatcher, context, env) -> {
@@ -91,6 +103,67 @@ public class DebugCommands {
                                     return dumpStats(ctx.getSource().getPlayerOrException());
                                 })
                             )
+                            .then(literal("ticking")
+                                .executes(ctx -> {
+                                    return showTickingMachines(ctx.getSource());
+                                })
+                            )
+                            .then(literal("auto_extract")
+                                .executes(ctx -> {
+                                    return showAutoExtractCounters(ctx.getSource());
+                                })
+                            )
+                            .then(literal("nuclear_seed")
+                                    .then(argument("pos", blockPos())
+                                            .then(argument("seed", LongArgumentType.longArg())
+                                                    .executes(ctx -> {
+                                                        return setNuclearSeed(ctx.getSource(), getLoadedBlockPos(ctx, "pos"),
+                                                                LongArgumentType.getLong(ctx, "seed"));
+                                                    })
+                                            )
+                                    )
+                            )
+                    )
+                    .then(literal("benchmark")
+                            .then(literal("transactions")
+                                .executes(ctx -> {
+                                    return runBenchmark(ctx.getSource(), TransactionBenchmark.run());
+                                })
+                            )
+                            .then(literal("energy_compat")
+                                .executes(ctx -> {
+                                    return runBenchmark(ctx.getSource(), EnergyCompatBenchmark.run(ctx.getSource()));
+                                })
+                            )
+                            .then(literal("nuclear")
+                                .executes(ctx -> {
+                                    return runBenchmark(ctx.getSource(), NuclearBenchmark.run());
+                                })
+                            )
+                            .then(literal("nuclear_transport")
+                                .executes(ctx -> {
+                                    return runBenchmark(ctx.getSource(), NeutronTransportValidation.run());
+                                })
+                            )
+                            .then(literal("nuclear_gui_sync")
+                                .executes(ctx -> {
+                                    return runBenchmark(ctx.getSource(), NuclearGuiSyncBenchmark.run());
+                                })
+                            )
+                            .then(literal("nuclear_replay")
+                                    .then(argument("design", StringArgumentType.string()).suggests(NUCLEAR_DESIGNS_SUGGESTION_PROVIDER)
+                                            .then(argument("ticks", IntegerArgumentType.integer(1, NuclearReplay.MAX_TICKS))
+                                                    .then(argument("seed", LongArgumentType.longArg())
+                                                            .executes(ctx -> {
+                                                                String design = StringArgumentType.getString(ctx, "design");
+                                                                int ticks = IntegerArgumentType.getInteger(ctx, "ticks");
+                                                                long seed = LongArgumentType.getLong(ctx, "seed");
+                                                                return replayNuclearDesign(ctx.getSource(), design, ticks, seed);
+                                                            })
+                                                    )
+                                            )
+                                    )
+                            )
                     )
             );
         });
@@ -135,6 +208,15 @@ public class DebugCommands {
         return Command.SINGLE_SUCCESS;
     }
 
+    private static int setNuclearSeed(CommandSourceStack src, BlockPos pos, long seed) throws CommandSyntaxException {
+        if (!(src.getLevel().getBlockEntity(pos) instanceof NuclearReactorMultiblockBlockEntity reactor)) {
+            throw new SimpleCommandExceptionType(Component.literal("No nuclear reactor at position " + pos)).create();
+        }
+        reactor.setSimulationSeed(seed);
+        src.sendSuccess(Component.literal("Set the simulation seed of the nuclear reactor at position %s to %d.".formatted(pos, seed)), true);
+        return Command.SINGLE_SUCCESS;
+    }
+
     private static int claimMachines(ServerPlayer player) {
         for (var level : player.server.getAllLevels()) {
             var chunkSource = level.getChunkSource();
@@ -155,8 +237,41 @@ public class DebugCommands {
     }
 
     private static int dumpStats(ServerPlayer player) {
+        StatisticsBuffer.flush(player.server, player.getUUID());
         player.displayClientMessage(Component.literal(
                 PlayerStatisticsData.get(player.server).get(player).toTag().toString()), false);
         return Command.SINGLE_SUCCESS;
     }
+
+    private static int showTickingMachines(CommandSourceStack src) {
+        MachineTickScheduler.getStats().forEach((level, stats) -> {
+            src.sendSuccess(Component.literal("%s: %d machines, %d active, %d sleeping, %d in non-ticking chunks".formatted(
+                    level.dimension().location(), stats.registered(), stats.ticked(), stats.sleeping(), stats.unloaded())), false);
+        });
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int showAutoExtractCounters(CommandSourceStack src) {
+        long[] counters = MIInventory.getAutoExtractCounters();
+        MIInventory.resetAutoExtractCounters();
+        src.sendSuccess(Component.literal("Auto-extract since last reset: %d calls, %d attempts, %d moves".formatted(
+                counters[0], counters[1], counters[2])), false);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int replayNuclearDesign(CommandSourceStack src, String designName, int ticks, long seed) throws CommandSyntaxException {
+        NuclearReplay.Design design;
+        try {
+            design = NuclearReplay.getDesign(designName);
+        } catch (IOException | RuntimeException exception) {
+            throw new SimpleCommandExceptionType(Component.literal("Invalid nuclear design " + designName + ": " + exception.getMessage())).create();
+        }
+        boolean expectedValueTransport = MIConfig.getConfig().expectedValueNeutronTransport;
+        return runBenchmark(src, NuclearReplay.replay(designName, design, ticks, seed, expectedValueTransport));
+    }
+
+    private static int runBenchmark(CommandSourceStack src, String result) {
+        src.sendSuccess(Component.literal(result), false);
+        return Command.SINGLE_SUCCESS;
+    }
 }
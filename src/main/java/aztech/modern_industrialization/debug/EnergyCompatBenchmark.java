@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.debug;
+
+import aztech.modern_industrialization.MIIdentifier;
+import aztech.modern_industrialization.api.energy.EnergyApi;
+import aztech.modern_industrialization.api.energy.MIEnergyStorage;
+import aztech.modern_industrialization.compat.energy.TrStorageWrappers;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.Registry;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BarrelBlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+import team.reborn.energy.api.EnergyStorage;
+import team.reborn.energy.api.base.DelegatingEnergyStorage;
+import team.reborn.energy.api.base.SimpleEnergyStorage;
+
+/**
+ * Measures the per-tick cost of energy lookups and of the TR compat wrappers.
+ * A grid of MI storage units is temporarily placed above the command source,
+ * and looked up with {@link BlockApiCache}s like the cables do, through
+ * {@link EnergyApi#SIDED} and through the {@link EnergyStorage#SIDED} fallback.
+ * The other direction wraps TR storages with {@link TrStorageWrappers}, like
+ * the {@link EnergyApi#SIDED} fallback does, for block entities that are not
+ * placed in the world. Half of them expose the same TR storage on every lookup,
+ * the other half a new one. No API provider is registered, so the benchmark
+ * leaves the lookups of the game unchanged. Run with
+ * {@code /mi benchmark energy_compat}.
+ */
+public class EnergyCompatBenchmark {
+    private static final int GRID_SIZE = 8;
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int ITERATIONS = 20_000;
+    private static final long TRANSFER = 128;
+    private static final Direction SIDE = Direction.UP;
+
+    private final ServerLevel level;
+    private final List<BlockPos> positions = new ArrayList<>();
+    private final List<BlockApiCache<MIEnergyStorage, Direction>> miCaches = new ArrayList<>();
+    private final List<BlockApiCache<EnergyStorage, Direction>> trCaches = new ArrayList<>();
+    private final List<BlockEntity> trBlockEntities = new ArrayList<>();
+    private final List<EnergyStorage> trStorages = new ArrayList<>();
+    private final EnergyStorage[] previous = new EnergyStorage[GRID_SIZE * GRID_SIZE];
+    private int found, reused;
+
+    private EnergyCompatBenchmark(ServerLevel level) {
+        this.level = level;
+    }
+
+    private void placeEndpoints(BlockPos origin) throws CommandSyntaxException {
+        for (int x = 0; x < GRID_SIZE; ++x) {
+            for (int z = 0; z < GRID_SIZE; ++z) {
+                BlockPos pos = origin.offset(x, 0, z);
+                if (!level.isLoaded(pos) || !level.getBlockState(pos).isAir()) {
+                    throw new SimpleCommandExceptionType(Component.literal("The benchmark needs %dx%d loaded air blocks starting at %s"
+                            .formatted(GRID_SIZE, GRID_SIZE, origin))).create();
+                }
+            }
+        }
+
+        BlockState storageUnit = Registry.BLOCK.get(new MIIdentifier("lv_storage_unit")).defaultBlockState();
+        for (int x = 0; x < GRID_SIZE; ++x) {
+            for (int z = 0; z < GRID_SIZE; ++z) {
+                BlockPos pos = origin.offset(x, 0, z);
+                level.setBlock(pos, storageUnit, Block.UPDATE_CLIENTS);
+                positions.add(pos);
+                miCaches.add(BlockApiCache.create(EnergyApi.SIDED, level, pos));
+                trCaches.add(BlockApiCache.create(EnergyStorage.SIDED, level, pos));
+                // Not placed in the world, they only hold the wrappers.
+                trBlockEntities.add(new BarrelBlockEntity(pos, Blocks.BARREL.defaultBlockState()));
+                trStorages.add(new SimpleEnergyStorage(TRANSFER, TRANSFER, TRANSFER));
+            }
+        }
+    }
+
+    private void removeEndpoints() {
+        for (BlockPos pos : positions) {
+            level.setBlock(pos, Blocks.AIR.defaultBlockState(), Block.UPDATE_CLIENTS);
+        }
+    }
+
+    /**
+     * TR to MI lookup of an endpoint, as done by the {@link EnergyApi#SIDED}
+     * fallback once the TR storage is found. Odd endpoints behave like providers
+     * that return a new storage for every lookup.
+     */
+    private MIEnergyStorage wrapTrStorage(int endpoint) {
+        EnergyStorage trStorage = trStorages.get(endpoint);
+        if (endpoint % 2 == 1) {
+            trStorage = new DelegatingEnergyStorage(trStorage, null);
+        }
+        return TrStorageWrappers.wrap(trBlockEntities.get(endpoint), SIDE, trStorage);
+    }
+
+    /**
+     * One network tick: look up every endpoint, then insert energy into all of
+     * them in a transaction that is aborted to keep the state stable.
+     */
+    private void runIteration(IntFunction<? extends EnergyStorage> lookup) {
+        try (Transaction transaction = Transaction.openOuter()) {
+            for (int i = 0; i < previous.length; ++i) {
+                @Nullable
+                EnergyStorage storage = lookup.apply(i);
+                if (storage != null) {
+                    found++;
+                    if (storage == previous[i]) {
+                        reused++;
+                    }
+                    storage.insert(TRANSFER, transaction);
+                }
+                previous[i] = storage;
+            }
+        }
+    }
+
+    private String measure(String name, IntFunction<? extends EnergyStorage> lookup) {
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            runIteration(lookup);
+        }
+        found = reused = 0;
+
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            runIteration(lookup);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+        return "%s: %.1f ns/tick, %.1f bytes allocated/tick, %d/%d endpoints found, %.1f%% same storage as the previous tick".formatted(
+                name, (double) elapsedNanos / ITERATIONS, (double) allocatedBytes / ITERATIONS, found / ITERATIONS, previous.length,
+                found == 0 ? 0 : 100.0 * reused / found);
+    }
+
+    public static String run(CommandSourceStack src) throws CommandSyntaxException {
+        var benchmark = new EnergyCompatBenchmark(src.getLevel());
+        benchmark.placeEndpoints(new BlockPos(src.getPosition()).above(3));
+        try {
+            return "Energy lookups of %d endpoints, %d ticks\n%s\n%s\n%s".formatted(
+                    GRID_SIZE * GRID_SIZE, ITERATIONS,
+                    benchmark.measure("EnergyApi.SIDED, MI storage units", i -> benchmark.miCaches.get(i).find(SIDE)),
+                    benchmark.measure("EnergyStorage.SIDED, MI storage units", i -> benchmark.trCaches.get(i).find(SIDE)),
+                    benchmark.measure("TR storages wrapped for MI, half new every lookup", benchmark::wrapTrStorage));
+        } finally {
+            benchmark.removeEndpoints();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.debug;
+
+import aztech.modern_industrialization.machines.components.NuclearEfficiencyHistoryComponent;
+import aztech.modern_industrialization.nuclear.INuclearTile;
+import aztech.modern_industrialization.nuclear.NeutronType;
+import aztech.modern_industrialization.nuclear.NuclearGrid;
+import aztech.modern_industrialization.nuclear.NuclearGridHelper;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import net.minecraft.network.chat.Component;
+import net.minecraft.util.RandomSource;
+
+/**
+ * Checks that the expected-value neutron transport agrees with the random
+ * walks. Both modes run on the same layout with a fixed neutron generation, and
+ * the total flux and absorption of every tile are compared. The validation
+ * fails if the difference exceeds {@link #MAX_TOTAL_DIFFERENCE} or
+ * {@link #MAX_TILE_DIFFERENCE}. It only uses {@link StubNuclearComponent}s, so it
+ * runs with {@code /mi benchmark nuclear_transport}, or outside of a game with
+ * {@link #main}.
+ */
+public class NeutronTransportValidation {
+    private static final int TICKS = 20_000;
+    /**
+     * At most 30 neutrons per tile, so that every neutron gets its own random walk.
+     * Larger batches share their fate, and make the tile totals much noisier.
+     */
+    private static final int NEUTRONS_PER_FUEL = 30;
+    /**
+     * Maximum sum over all tiles of the absolute difference, relative to the sum
+     * of the expected-value totals.
+     */
+    private static final double MAX_TOTAL_DIFFERENCE = 0.02;
+    /**
+     * Maximum relative difference of a single tile, for tiles that see more than
+     * {@link #MIN_TILE_TOTAL} neutrons.
+     */
+    private static final double MAX_TILE_DIFFERENCE = 0.05;
+    private static final long MIN_TILE_TOTAL = 10_000;
+    /**
+     * Fuel, water, carbon plates and a few holes without a hatch, to exercise
+     * absorption, slowing and escape.
+     */
+    private static final String[] LAYOUT = {
+            "CWCWCWC",
+            "WF FWFW",
+            "CFCWCFC",
+            "WWW WWW",
+            "CFCWCFC",
+            "WFWF FW",
+            "CWCWCWC",
+    };
+
+    private static class FixedSourceTile extends StubNuclearTile {
+        private final int neutronGeneration;
+        /**
+         * Indexed by type for flux, and 2 + type for absorption.
+         */
+        final long[] totals = new long[4];
+
+        FixedSourceTile(StubNuclearComponent component) {
+            super(component);
+            this.neutronGeneration = component.fuel() != null ? NEUTRONS_PER_FUEL : 0;
+        }
+
+        @Override
+        public int neutronGenerationTick(NuclearEfficiencyHistoryComponent efficiencyHistory, RandomSource random) {
+            return neutronGeneration;
+        }
+
+        @Override
+        public void addNeutronsToFlux(int neutronNumber, NeutronType type) {
+            super.addNeutronsToFlux(neutronNumber, type);
+            totals[type.index] += neutronNumber;
+        }
+
+        @Override
+        public void absorbNeutrons(int neutronNumber, NeutronType type) {
+            super.absorbNeutrons(neutronNumber, type);
+            totals[2 + type.index] += neutronNumber;
+        }
+    }
+
+    private static FixedSourceTile[][] run(boolean expectedValueTransport) {
+        StubNuclearComponent fuel = StubNuclearComponent.get("modern_industrialization:uranium_fuel_rod_quad");
+        StubNuclearComponent carbon = StubNuclearComponent.get("modern_industrialization:carbon_large_plate");
+        StubNuclearComponent water = StubNuclearComponent.get("minecraft:water");
+
+        int size = LAYOUT.length;
+        FixedSourceTile[][] tiles = new FixedSourceTile[size][size];
+        for (int i = 0; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                StubNuclearComponent component = switch (LAYOUT[j].charAt(i)) {
+                case 'F' -> fuel;
+                case 'C' -> carbon;
+                case 'W' -> water;
+                default -> null;
+                };
+                // Leave holes empty, so that neutrons escape there.
+                tiles[i][j] = component == null ? null : new FixedSourceTile(component);
+            }
+        }
+
+        NuclearGrid grid = new NuclearGrid(size, size, tiles, 0);
+        NuclearEfficiencyHistoryComponent efficiencyHistory = new NuclearEfficiencyHistoryComponent();
+        for (int tick = 0; tick < TICKS; ++tick) {
+            NuclearGridHelper.simulate(grid, efficiencyHistory, expectedValueTransport);
+            efficiencyHistory.tick();
+        }
+        return tiles;
+    }
+
+    /**
+     * Run both transport modes and append the comparison to the result.
+     *
+     * @return True if all the differences are within the tolerances.
+     */
+    private static boolean validate(StringBuilder result) {
+        FixedSourceTile[][] randomWalk = run(false);
+        FixedSourceTile[][] expected = run(true);
+
+        String[] names = { "fast flux", "thermal flux", "fast absorption", "thermal absorption" };
+        result.append("Expected-value vs random-walk neutron transport, %d ticks:".formatted(TICKS));
+        boolean failed = false;
+        for (int quantity = 0; quantity < 4; ++quantity) {
+            long totalDifference = 0, total = 0;
+            double maxRelativeDifference = 0;
+            for (int i = 0; i < randomWalk.length; ++i) {
+                for (int j = 0; j < randomWalk[i].length; ++j) {
+                    if (randomWalk[i][j] == null) {
+                        continue;
+                    }
+                    long a = randomWalk[i][j].totals[quantity];
+                    long b = expected[i][j].totals[quantity];
+                    totalDifference += Math.abs(a - b);
+                    total += b;
+                    // Ignore tiles that see too few neutrons for the comparison to be meaningful.
+                    if (b > MIN_TILE_TOTAL) {
+                        maxRelativeDifference = Math.max(maxRelativeDifference, (double) Math.abs(a - b) / b);
+                    }
+                }
+            }
+            double totalRelativeDifference = total == 0 ? 0 : (double) totalDifference / total;
+            boolean ok = totalRelativeDifference <= MAX_TOTAL_DIFFERENCE && maxRelativeDifference <= MAX_TILE_DIFFERENCE;
+            failed |= !ok;
+            result.append("\n%s: total %.2f%% apart, worst tile %.2f%% apart%s".formatted(names[quantity],
+                    100 * totalRelativeDifference, 100 * maxRelativeDifference, ok ? "" : " (FAILED)"));
+        }
+        if (failed) {
+            result.append("\nTolerances: %.0f%% total, %.0f%% per tile".formatted(100 * MAX_TOTAL_DIFFERENCE, 100 * MAX_TILE_DIFFERENCE));
+        }
+        return !failed;
+    }
+
+    public static String run() throws CommandSyntaxException {
+        StringBuilder result = new StringBuilder();
+        if (!validate(result)) {
+            throw new SimpleCommandExceptionType(Component.literal(result.toString())).create();
+        }
+        return result.toString();
+    }
+
+    /**
+     * Run the validation outside of a game. Exits with status 1 if the tolerances
+     * are exceeded.
+     */
+    public static void main(String[] args) {
+        StringBuilder result = new StringBuilder();
+        boolean passed = validate(result);
+        System.out.println(result);
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+}
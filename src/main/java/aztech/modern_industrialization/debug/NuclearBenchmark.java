@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.debug;
+
+import aztech.modern_industrialization.machines.components.NuclearEfficiencyHistoryComponent;
+import aztech.modern_industrialization.nuclear.NuclearGrid;
+import aztech.modern_industrialization.nuclear.NuclearGridHelper;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Measures the cost of one tick of each of the {@link NuclearReplay#STANDARD_DESIGNS},
+ * with both neutron transport modes. Run with {@code /mi benchmark nuclear}.
+ */
+public class NuclearBenchmark {
+    private static final int WARMUP_TICKS = 2_000;
+    private static final int TICKS = 10_000;
+
+    public static String run() {
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<String, NuclearReplay.Design> entry : NuclearReplay.STANDARD_DESIGNS.entrySet()) {
+            if (!result.isEmpty()) {
+                result.append("\n");
+            }
+            result.append(measure(entry.getKey(), entry.getValue(), false)).append("\n");
+            result.append(measure(entry.getKey(), entry.getValue(), true));
+        }
+        return result.toString();
+    }
+
+    private static String measure(String name, NuclearReplay.Design design, boolean expectedValueTransport) {
+        NuclearGrid grid = design.build(0);
+        NuclearEfficiencyHistoryComponent efficiencyHistory = new NuclearEfficiencyHistoryComponent();
+
+        for (int i = 0; i < WARMUP_TICKS; ++i) {
+            NuclearGridHelper.simulate(grid, efficiencyHistory, expectedValueTransport);
+            efficiencyHistory.tick();
+        }
+
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < TICKS; ++i) {
+            NuclearGridHelper.simulate(grid, efficiencyHistory, expectedValueTransport);
+            efficiencyHistory.tick();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+        return "Nuclear reactor %s (%s): %d ticks, %.1f us/tick, %.1f bytes allocated/tick, %.0f EU/t".formatted(
+                name, expectedValueTransport ? "expected values" : "random walks", TICKS,
+                elapsedNanos / 1000.0 / TICKS, (double) allocatedBytes / TICKS,
+                efficiencyHistory.getAverage(NuclearEfficiencyHistoryComponent.Type.euProduction));
+    }
+}
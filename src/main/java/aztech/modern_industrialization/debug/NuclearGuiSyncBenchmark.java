@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.debug;
+
+import aztech.modern_industrialization.machines.components.NuclearEfficiencyHistoryComponent;
+import aztech.modern_industrialization.machines.guicomponents.NuclearReactorGui;
+import aztech.modern_industrialization.nuclear.INuclearTileData;
+import aztech.modern_industrialization.nuclear.NeutronType;
+import aztech.modern_industrialization.nuclear.NuclearGrid;
+import aztech.modern_industrialization.nuclear.NuclearGridHelper;
+import java.util.Optional;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.minecraft.network.FriendlyByteBuf;
+
+/**
+ * Measures the bandwidth used by one open nuclear reactor screen, by syncing a
+ * simulated reactor every tick like the reactor menu does. Run with
+ * {@code /mi benchmark nuclear_gui_sync}.
+ */
+public class NuclearGuiSyncBenchmark {
+    private static final String DESIGN = "uranium_quad_11x11";
+    private static final int WARMUP_TICKS = 2_000;
+    private static final int TICKS = 1_200;
+
+    public static String run() {
+        NuclearGrid grid = NuclearReplay.STANDARD_DESIGNS.get(DESIGN).build(0);
+        NuclearEfficiencyHistoryComponent efficiencyHistory = new NuclearEfficiencyHistoryComponent();
+        var server = new NuclearReactorGui.Server(() -> getData(grid, efficiencyHistory));
+
+        for (int i = 0; i < WARMUP_TICKS; ++i) {
+            NuclearGridHelper.simulate(grid, efficiencyHistory);
+            efficiencyHistory.tick();
+        }
+
+        FriendlyByteBuf initialBuf = PacketByteBufs.create();
+        server.writeInitialData(initialBuf);
+        int initialBytes = initialBuf.writerIndex();
+        NuclearReactorGui.SyncedData tracked = server.copyData();
+        NuclearReactorGui.Data clientData = NuclearReactorGui.Data.read(initialBuf, null);
+
+        long legacyBytes = 0;
+        long deltaBytes = 0;
+        int syncs = 0;
+        boolean consistent = true;
+        for (int i = 0; i < TICKS; ++i) {
+            NuclearGridHelper.simulate(grid, efficiencyHistory);
+            efficiencyHistory.tick();
+
+            // The old protocol sent the full grid as doubles every tick.
+            legacyBytes += getLegacySize(getData(grid, efficiencyHistory));
+
+            if (server.needsSync(tracked)) {
+                FriendlyByteBuf buf = PacketByteBufs.create();
+                tracked = server.writeCurrentData(buf, tracked);
+                deltaBytes += buf.writerIndex();
+                syncs++;
+                clientData = NuclearReactorGui.Data.read(buf, clientData);
+                consistent &= clientData.sameAs(tracked.data());
+                buf.release();
+            }
+        }
+        initialBuf.release();
+
+        double seconds = TICKS / 20.0;
+        return ("Nuclear reactor screen sync (%s, %d ticks): %d syncs, initial sync %d bytes, %.0f bytes/s (previously %.0f bytes/s)"
+                + ", client data %s").formatted(DESIGN, TICKS, syncs, initialBytes, deltaBytes / seconds,
+                        legacyBytes / seconds, consistent ? "consistent" : "INCONSISTENT");
+    }
+
+    private static NuclearReactorGui.Data getData(NuclearGrid grid, NuclearEfficiencyHistoryComponent efficiencyHistory) {
+        int sizeX = grid.getSizeX();
+        int sizeY = grid.getSizeY();
+        Optional<INuclearTileData>[] tilesData = new Optional[sizeX * sizeY];
+        for (int i = 0; i < sizeX; i++) {
+            for (int j = 0; j < sizeY; j++) {
+                tilesData[NuclearReactorGui.Data.toIndex(i, j, sizeY)] = Optional.ofNullable(grid.getNuclearTile(i, j));
+            }
+        }
+        return new NuclearReactorGui.Data(true, sizeX, sizeY, tilesData,
+                efficiencyHistory.getAverage(NuclearEfficiencyHistoryComponent.Type.euProduction),
+                efficiencyHistory.getAverage(NuclearEfficiencyHistoryComponent.Type.euFuelConsumption));
+    }
+
+    /**
+     * Size of the data in the format used before delta syncs.
+     */
+    private static int getLegacySize(NuclearReactorGui.Data data) {
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        buf.writeBoolean(true);
+        buf.writeInt(data.gridSizeX());
+        buf.writeInt(data.gridSizeY());
+        for (Optional<INuclearTileData> maybeTile : data.tilesData()) {
+            buf.writeBoolean(maybeTile.isPresent());
+            if (maybeTile.isPresent()) {
+                INuclearTileData tile = maybeTile.get();
+                buf.writeDouble(tile.getTemperature());
+                buf.writeDouble(tile.getMeanNeutronAbsorption(NeutronType.FAST));
+                buf.writeDouble(tile.getMeanNeutronAbsorption(NeutronType.THERMAL));
+                buf.writeDouble(tile.getMeanNeutronFlux(NeutronType.FAST));
+                buf.writeDouble(tile.getMeanNeutronFlux(NeutronType.THERMAL));
+                buf.writeDouble(tile.getMeanNeutronGeneration());
+                buf.writeDouble(tile.getHeatTransferCoeff());
+                buf.writeDouble(tile.getMeanEuGeneration());
+                buf.writeBoolean(!tile.isFluid());
+                buf.writeNbt(tile.getVariant().toNbt());
+                buf.writeLong(tile.getVariantAmount());
+            }
+        }
+        buf.writeDouble(data.euProduction());
+        buf.writeDouble(data.euFuelConsumption());
+        int size = buf.writerIndex();
+        buf.release();
+        return size;
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.debug;
+
+import aztech.modern_industrialization.machines.components.NuclearEfficiencyHistoryComponent;
+import aztech.modern_industrialization.nuclear.*;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Pattern;
+import net.fabricmc.loader.api.FabricLoader;
+
+/**
+ * Headless nuclear reactor simulation on grids of {@link StubNuclearTile}s
+ * built from a text description, reproducible from a seed. It doesn't use the
+ * game registries, so it can also run outside of a game. Run with
+ * {@code /mi benchmark nuclear_replay <design> <ticks> <seed>}, where the design
+ * is one of the {@link #STANDARD_DESIGNS} or a file in the
+ * {@code nuclear_designs} folder of the game directory.
+ *
+ * <p>
+ * In a description, {@code .} is a position without a hatch, {@code -} is an
+ * empty hatch, and other characters are defined by the legend, from a
+ * character to the id of a nuclear component item or fluid, see
+ * {@link StubNuclearComponent#get}. Text descriptions
+ * have one line per layout row, and legend lines such as
+ * {@code F = modern_industrialization:uranium_fuel_rod}. JSON descriptions
+ * have a {@code layout} array of rows and a {@code legend} object.
+ */
+public class NuclearReplay {
+    public static final Map<String, Design> STANDARD_DESIGNS = new LinkedHashMap<>();
+
+    static {
+        STANDARD_DESIGNS.put("uranium_5x5", Design.parse("""
+                .WFW.
+                WFWFW
+                FWFWF
+                WFWFW
+                .WFW.
+                F = modern_industrialization:uranium_fuel_rod
+                W = minecraft:water
+                """));
+        STANDARD_DESIGNS.put("uranium_quad_11x11", Design.parse("""
+                WWWWWWWWWWW
+                FFFFFFFFFFF
+                WWWWWWWWWWW
+                FFFFFFFFFFF
+                WWWWWWWWWWW
+                FFFFFFFFFFF
+                WWWWWWWWWWW
+                FFFFFFFFFFF
+                WWWWWWWWWWW
+                FFFFFFFFFFF
+                WWWWWWWWWWW
+                F = modern_industrialization:uranium_fuel_rod_quad
+                W = minecraft:water
+                """));
+        STANDARD_DESIGNS.put("moderated_mox_9x9", Design.parse("""
+                ..CWCWC..
+                .CFWFWFC.
+                CFCWCWCFC
+                WWWHWHWWW
+                CFCWCWCFC
+                WWWHWHWWW
+                CFCWCWCFC
+                .CFWFWFC.
+                ..CWCWC..
+                F = modern_industrialization:le_mox_fuel_rod_quad
+                C = modern_industrialization:carbon_large_plate
+                H = modern_industrialization:large_heat_exchanger
+                W = minecraft:water
+                """));
+    }
+
+    public record Design(String[] layout, Map<Character, String> legend) {
+        public Design {
+            if (layout.length == 0) {
+                throw new IllegalArgumentException("Empty layout");
+            }
+            for (String id : legend.values()) {
+                StubNuclearComponent.get(id);
+            }
+            for (String row : layout) {
+                if (row.length() != layout[0].length()) {
+                    throw new IllegalArgumentException("All layout rows must have the same length");
+                }
+                for (char c : row.toCharArray()) {
+                    if (c != '.' && c != '-' && !legend.containsKey(c)) {
+                        throw new IllegalArgumentException("Character '%c' is not in the legend".formatted(c));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Parse a text or JSON description.
+         */
+        public static Design parse(String description) {
+            if (description.trim().startsWith("{")) {
+                JsonObject json = JsonParser.parseString(description).getAsJsonObject();
+                List<String> layout = new ArrayList<>();
+                for (JsonElement row : json.getAsJsonArray("layout")) {
+                    layout.add(row.getAsString());
+                }
+                Map<Character, String> legend = new HashMap<>();
+                for (var entry : json.getAsJsonObject("legend").entrySet()) {
+                    legend.put(parseLegendKey(entry.getKey()), entry.getValue().getAsString());
+                }
+                return new Design(layout.toArray(String[]::new), legend);
+            }
+
+            List<String> layout = new ArrayList<>();
+            Map<Character, String> legend = new HashMap<>();
+            for (String line : description.split("\n")) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int equals = line.indexOf('=');
+                if (equals >= 0) {
+                    legend.put(parseLegendKey(line.substring(0, equals).trim()), line.substring(equals + 1).trim());
+                } else {
+                    layout.add(line);
+                }
+            }
+            return new Design(layout.toArray(String[]::new), legend);
+        }
+
+        private static char parseLegendKey(String key) {
+            if (key.length() != 1) {
+                throw new IllegalArgumentException("Legend keys must be a single character, got '%s'".formatted(key));
+            }
+            char c = key.charAt(0);
+            if (c == '.' || c == '-') {
+                throw new IllegalArgumentException("'%c' can't be used in the legend, it is reserved for positions without a hatch or empty hatches"
+                        .formatted(c));
+            }
+            return c;
+        }
+
+        /**
+         * Build the grid. All the randomness of the simulation comes from the seed.
+         */
+        public NuclearGrid build(long seed) {
+            int sizeX = layout[0].length();
+            int sizeY = layout.length;
+            INuclearTile[][] tiles = new INuclearTile[sizeX][sizeY];
+            for (int i = 0; i < sizeX; ++i) {
+                for (int j = 0; j < sizeY; ++j) {
+                    char c = layout[j].charAt(i);
+                    if (c != '.') {
+                        tiles[i][j] = new StubNuclearTile(c == '-' ? null : StubNuclearComponent.get(legend.get(c)));
+                    }
+                }
+            }
+            return new NuclearGrid(sizeX, sizeY, tiles, seed);
+        }
+    }
+
+    /**
+     * Also keeps the totals, while the component only keeps averages.
+     */
+    private static class TotalEfficiencyHistory extends NuclearEfficiencyHistoryComponent {
+        double euProduction = 0;
+        double euFuelConsumption = 0;
+
+        @Override
+        public void registerEuProduction(double eu) {
+            super.registerEuProduction(eu);
+            euProduction += eu;
+        }
+
+        @Override
+        public void registerEuFuelConsumption(double eu) {
+            super.registerEuFuelConsumption(eu);
+            euFuelConsumption += eu;
+        }
+    }
+
+    /**
+     * The replay runs synchronously on the server thread, so the number of ticks is bounded to stay well below the
+     * watchdog timeout.
+     */
+    public static final int MAX_TICKS = 1200;
+    private static final Pattern DESIGN_FILE_NAME = Pattern.compile("[a-zA-Z0-9_\\-]+(\\.[a-zA-Z0-9]+)?");
+
+    public static Design getDesign(String name) throws IOException {
+        Design design = STANDARD_DESIGNS.get(name);
+        if (design != null) {
+            return design;
+        }
+        // Only accept plain file names, to make sure that only files in the design folder can be read.
+        if (!DESIGN_FILE_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Design files must be plain file names in the nuclear_designs folder");
+        }
+        Path folder = FabricLoader.getInstance().getGameDir().resolve("nuclear_designs").toAbsolutePath().normalize();
+        Path path = folder.resolve(name).normalize();
+        if (!path.getParent().equals(folder)) {
+            throw new IllegalArgumentException("Design files must be plain file names in the nuclear_designs folder");
+        }
+        return Design.parse(Files.readString(path));
+    }
+
+    public static String replay(String name, Design design, int ticks, long seed, boolean expectedValueTransport) {
+        if (ticks < 1 || ticks > MAX_TICKS) {
+            throw new IllegalArgumentException("Replay ticks must be between 1 and " + MAX_TICKS);
+        }
+        NuclearGrid grid = design.build(seed);
+        TotalEfficiencyHistory efficiencyHistory = new TotalEfficiencyHistory();
+        long[] tickNanos = new long[ticks];
+
+        for (int tick = 0; tick < ticks; ++tick) {
+            long start = System.nanoTime();
+            NuclearGridHelper.simulate(grid, efficiencyHistory, expectedValueTransport);
+            efficiencyHistory.tick();
+            tickNanos[tick] = System.nanoTime() - start;
+        }
+
+        // The checksum changes if any temperature is different, to check that runs are reproducible.
+        long checksum = 0;
+        for (int i = 0; i < grid.getSizeX(); ++i) {
+            for (int j = 0; j < grid.getSizeY(); ++j) {
+                INuclearTile tile = grid.getNuclearTile(i, j);
+                if (tile != null) {
+                    checksum = 31 * checksum + Double.doubleToLongBits(tile.getTemperature());
+                }
+            }
+        }
+
+        Arrays.sort(tickNanos);
+        double meanMicros = Arrays.stream(tickNanos).average().orElse(0) / 1000;
+
+        StringBuilder result = new StringBuilder();
+        result.append("Replay of %s with %s, seed %d, %d ticks:".formatted(name, expectedValueTransport ? "expected values" : "random walks",
+                seed, ticks));
+        result.append("\nTime per tick: mean %.1f us, median %.1f us, p99 %.1f us, max %.1f us".formatted(meanMicros,
+                percentileMicros(tickNanos, 0.5), percentileMicros(tickNanos, 0.99), percentileMicros(tickNanos, 1)));
+        result.append("\nNeutrons created: %d".formatted(grid.getNeutronCreationCount(NeutronType.FAST)));
+        for (NeutronFate fate : NeutronFate.values()) {
+            result.append("\n%s: %d fast, %d thermal".formatted(fate, grid.getNeutronFateCount(NeutronType.FAST, fate),
+                    grid.getNeutronFateCount(NeutronType.THERMAL, fate)));
+        }
+        result.append("\nEU produced: %.0f (%.1f EU/t), fuel EU consumed: %.0f".formatted(efficiencyHistory.euProduction,
+                efficiencyHistory.euProduction / ticks, efficiencyHistory.euFuelConsumption));
+        result.append("\nChecksum: %016x".formatted(checksum));
+        return result.toString();
+    }
+
+    /**
+     * Replay a standard design outside of a game, with the arguments
+     * {@code <design> <ticks> <seed> [expected_values]}.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: <design> <ticks> <seed> [expected_values]");
+            System.exit(2);
+        }
+        Design design = STANDARD_DESIGNS.get(args[0]);
+        if (design == null) {
+            System.err.println("Unknown design %s, expected one of %s".formatted(args[0], STANDARD_DESIGNS.keySet()));
+            System.exit(2);
+        }
+        boolean expectedValueTransport = args.length > 3 && Boolean.parseBoolean(args[3]);
+        System.out.println(replay(args[0], design, Integer.parseInt(args[1]), Long.parseLong(args[2]), expectedValueTransport));
+    }
+
+    private static double percentileMicros(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(index, 0)] / 1000.0;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.debug;
+
+import aztech.modern_industrialization.nuclear.INeutronBehaviour;
+import aztech.modern_industrialization.nuclear.INuclearComponent;
+import aztech.modern_industrialization.nuclear.IsotopeFuelParams;
+import aztech.modern_industrialization.nuclear.IsotopeParams;
+import aztech.modern_industrialization.nuclear.NuclearConstant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.TransferVariant;
+import net.minecraft.core.Registry;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A nuclear component that doesn't need the game registries, so that
+ * {@link StubNuclearTile}s can be simulated without a running game. The
+ * components of {@link #get} use the same parameters as the items and fluids
+ * registered by MI.
+ */
+public record StubNuclearComponent(ResourceLocation id, boolean isFluid, double heatConduction, INeutronBehaviour neutronBehaviour,
+        @Nullable Fuel fuel) implements INuclearComponent<TransferVariant<?>> {
+
+    /**
+     * Same values as {@code NuclearFuel}.
+     */
+    public record Fuel(double neutronMultiplicationFactor, int directEuByDesintegration, int totalEuByDesintegration, int tempLimitLow,
+            int tempLimitHigh) {
+
+        static Fuel of(IsotopeFuelParams params) {
+            return new Fuel(params.neutronsMultiplication,
+                    (int) (NuclearConstant.EU_FOR_FAST_NEUTRON * params.directEnergyFactor * params.neutronsMultiplication),
+                    (int) (NuclearConstant.EU_FOR_FAST_NEUTRON * (1.0 + params.directEnergyFactor) * params.neutronsMultiplication),
+                    clampTemp(params.tempLimitLow), clampTemp(params.tempLimitHigh));
+        }
+
+        private static int clampTemp(int temperature) {
+            return 25 * (int) (temperature / 25d);
+        }
+
+        public double efficiencyFactor(double temperature) {
+            double factor = 1;
+            if (temperature > tempLimitLow) {
+                factor = Math.max(0, 1 - (temperature - tempLimitLow) / (tempLimitHigh - tempLimitLow));
+            }
+            return factor;
+        }
+    }
+
+    private static final Map<String, StubNuclearComponent> COMPONENTS = new LinkedHashMap<>();
+
+    static {
+        String[] fuelRodSuffixes = { "_fuel_rod", "_fuel_rod_double", "_fuel_rod_quad" };
+        Map<String, IsotopeFuelParams> fuels = new LinkedHashMap<>();
+        fuels.put("uranium", IsotopeFuelParams.mix(NuclearConstant.U238, NuclearConstant.U235, 1.0 / 81));
+        fuels.put("le_uranium", IsotopeFuelParams.mix(NuclearConstant.U238, NuclearConstant.U235, 1.0 / 9));
+        fuels.put("he_uranium", IsotopeFuelParams.mix(NuclearConstant.U238, NuclearConstant.U235, 1.0 / 3));
+        fuels.put("le_mox", IsotopeFuelParams.mix(NuclearConstant.U238, NuclearConstant.PU239, 1.0 / 9));
+        fuels.put("he_mox", IsotopeFuelParams.mix(NuclearConstant.U238, NuclearConstant.PU239, 1.0 / 3));
+        for (var entry : fuels.entrySet()) {
+            for (int i = 0; i < fuelRodSuffixes.length; ++i) {
+                int size = 1 << i;
+                register(new StubNuclearComponent(new ResourceLocation("modern_industrialization", entry.getKey() + fuelRodSuffixes[i]), false,
+                        0.8 * NuclearConstant.BASE_HEAT_CONDUCTION,
+                        INeutronBehaviour.of(NuclearConstant.ScatteringType.HEAVY, entry.getValue(), size), Fuel.of(entry.getValue())));
+            }
+        }
+
+        registerItem("carbon_large_plate", 2 * NuclearConstant.BASE_HEAT_CONDUCTION,
+                INeutronBehaviour.of(NuclearConstant.ScatteringType.MEDIUM, NuclearConstant.CARBON, 2));
+        registerItem("invar_large_plate", -0.9 * NuclearConstant.BASE_HEAT_CONDUCTION,
+                INeutronBehaviour.of(NuclearConstant.ScatteringType.MEDIUM, NuclearConstant.INVAR, 2));
+        registerItem("small_heat_exchanger", 15 * NuclearConstant.BASE_HEAT_CONDUCTION, INeutronBehaviour.NO_INTERACTION);
+        registerItem("large_heat_exchanger", 30 * NuclearConstant.BASE_HEAT_CONDUCTION, INeutronBehaviour.NO_INTERACTION);
+
+        // Same as FluidNuclearComponent#init.
+        registerFluid(new ResourceLocation("minecraft", "water"), NuclearConstant.BASE_HEAT_CONDUCTION * 5, 1,
+                NuclearConstant.ScatteringType.ULTRA_LIGHT, NuclearConstant.HYDROGEN);
+        registerFluid(new ResourceLocation("modern_industrialization", "heavy_water"), NuclearConstant.BASE_HEAT_CONDUCTION * 6, 1,
+                NuclearConstant.ScatteringType.LIGHT, NuclearConstant.DEUTERIUM);
+        registerFluid(new ResourceLocation("modern_industrialization", "high_pressure_water"), NuclearConstant.BASE_HEAT_CONDUCTION * 5, 4,
+                NuclearConstant.ScatteringType.ULTRA_LIGHT, NuclearConstant.HYDROGEN);
+        registerFluid(new ResourceLocation("modern_industrialization", "high_pressure_heavy_water"), NuclearConstant.BASE_HEAT_CONDUCTION * 6, 4,
+                NuclearConstant.ScatteringType.LIGHT, NuclearConstant.DEUTERIUM);
+    }
+
+    private static void register(StubNuclearComponent component) {
+        COMPONENTS.put(component.id.toString(), component);
+    }
+
+    private static void registerItem(String path, double heatConduction, INeutronBehaviour neutronBehaviour) {
+        register(new StubNuclearComponent(new ResourceLocation("modern_industrialization", path), false, heatConduction, neutronBehaviour, null));
+    }
+
+    private static void registerFluid(ResourceLocation id, double heatConduction, double density, NuclearConstant.ScatteringType type,
+            IsotopeParams params) {
+        register(new StubNuclearComponent(id, true, heatConduction * density, INeutronBehaviour.of(type, params, density), null));
+    }
+
+    /**
+     * @throws IllegalArgumentException If there is no stub component with that id.
+     */
+    public static StubNuclearComponent get(String id) {
+        StubNuclearComponent component = COMPONENTS.get(new ResourceLocation(id).toString());
+        if (component == null) {
+            throw new IllegalArgumentException("Unknown nuclear component %s, expected one of %s".formatted(id, COMPONENTS.keySet()));
+        }
+        return component;
+    }
+
+    @Override
+    public double getHeatConduction() {
+        return heatConduction;
+    }
+
+    @Override
+    public INeutronBehaviour getNeutronBehaviour() {
+        return neutronBehaviour;
+    }
+
+    /**
+     * Only available in a running game, the simulation itself never needs it.
+     */
+    @Override
+    public TransferVariant<?> getVariant() {
+        return isFluid ? FluidVariant.of(Registry.FLUID.get(id)) : ItemVariant.of(Registry.ITEM.get(id));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.debug;
+
+import static aztech.modern_industrialization.machines.components.NeutronHistoryComponent.Type.*;
+
+import aztech.modern_industrialization.machines.components.NeutronHistoryComponent;
+import aztech.modern_industrialization.machines.components.NuclearEfficiencyHistoryComponent;
+import aztech.modern_industrialization.nuclear.*;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.TransferVariant;
+import net.minecraft.util.RandomSource;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A nuclear tile that is not backed by a hatch, to run the nuclear simulation
+ * without a world or the game registries. Item components are never depleted or
+ * replaced, and fluid components are an unlimited coolant that turns heat into
+ * steam like a fluid hatch would.
+ */
+public class StubNuclearTile implements INuclearTile {
+    private final @Nullable StubNuclearComponent component;
+    private final NeutronHistoryComponent neutronHistory = new NeutronHistoryComponent();
+    private double temperature = 0;
+
+    public StubNuclearTile(@Nullable StubNuclearComponent component) {
+        this.component = component;
+    }
+
+    @Override
+    public double getTemperature() {
+        return temperature;
+    }
+
+    @Override
+    public void setTemperature(double temp) {
+        temperature = Math.min(Math.max(temp, 0), NuclearConstant.MAX_TEMPERATURE);
+    }
+
+    @Override
+    public void putHeat(double eu) {
+        setTemperature(temperature + eu / NuclearConstant.EU_PER_DEGREE);
+        neutronHistory.addValue(euGeneration, (int) eu);
+    }
+
+    @Override
+    public double getHeatTransferCoeff() {
+        return Math.max(NuclearConstant.BASE_HEAT_CONDUCTION + (component != null ? component.getHeatConduction() : 0), 0);
+    }
+
+    @Override
+    public double getMeanNeutronAbsorption(NeutronType type) {
+        return neutronHistory.getAverageReceived(type);
+    }
+
+    @Override
+    public double getMeanNeutronFlux(NeutronType type) {
+        return neutronHistory.getAverageFlux(type);
+    }
+
+    @Override
+    public double getMeanNeutronGeneration() {
+        return neutronHistory.getAverageGeneration();
+    }
+
+    @Override
+    public double getMeanEuGeneration() {
+        return neutronHistory.getAverageEuGeneration();
+    }
+
+    @Override
+    public TransferVariant getVariant() {
+        return component != null ? component.getVariant() : ItemVariant.blank();
+    }
+
+    @Override
+    public long getVariantAmount() {
+        return component != null ? 1 : 0;
+    }
+
+    @Override
+    public boolean isFluid() {
+        return component != null && component.isFluid();
+    }
+
+    @Override
+    public @Nullable INuclearComponent<?> getComponent() {
+        return component;
+    }
+
+    @Override
+    public int neutronGenerationTick(NuclearEfficiencyHistoryComponent efficiencyHistory, RandomSource random) {
+        int neutronsProduced = 0;
+
+        if (component != null && component.fuel() != null) {
+            // Same as NuclearFuel#simulateDesintegration, without depletion.
+            StubNuclearComponent.Fuel fuel = component.fuel();
+            double meanNeutron = getMeanNeutronAbsorption(NeutronType.BOTH) + NuclearConstant.BASE_NEUTRON;
+            int absorption = randIntFromDouble(meanNeutron, random);
+            efficiencyHistory.registerEuFuelConsumption(absorption * fuel.totalEuByDesintegration());
+            neutronsProduced = randIntFromDouble(fuel.efficiencyFactor(temperature) * absorption * fuel.neutronMultiplicationFactor(), random);
+        }
+
+        neutronHistory.addValue(neutronGeneration, neutronsProduced);
+        return neutronsProduced;
+    }
+
+    private static int randIntFromDouble(double value, RandomSource rand) {
+        return (int) Math.floor(value) + (rand.nextDouble() < (value % 1) ? 1 : 0);
+    }
+
+    @Override
+    public boolean hasFuel() {
+        return component != null && component.fuel() != null;
+    }
+
+    @Override
+    public double getDirectEuPerNeutron() {
+        if (component != null && component.fuel() != null) {
+            return component.fuel().directEuByDesintegration() / component.fuel().neutronMultiplicationFactor();
+        }
+        return 0;
+    }
+
+    @Override
+    public void absorbNeutrons(int neutronNumber, NeutronType type) {
+        neutronHistory.addValue(type == NeutronType.FAST ? fastNeutronReceived : thermalNeutronReceived, neutronNumber);
+    }
+
+    @Override
+    public void addNeutronsToFlux(int neutronNumber, NeutronType type) {
+        neutronHistory.addValue(type == NeutronType.FAST ? fastNeutronFlux : thermalNeutronFlux, neutronNumber);
+    }
+
+    @Override
+    public void nuclearTick(NuclearEfficiencyHistoryComponent efficiencyHistory, RandomSource random) {
+        neutronHistory.tick();
+
+        if (isFluid() && temperature > 100) {
+            // Same steam production as a fluid hatch with enough water and room for steam.
+            double euProduced = (temperature - 100) / (NuclearConstant.MAX_TEMPERATURE - 100) * NuclearConstant.MAX_HATCH_EU_PRODUCTION;
+            setTemperature(temperature - euProduced / NuclearConstant.EU_PER_DEGREE);
+            efficiencyHistory.registerEuProduction(euProduced);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.debug;
+
+import aztech.modern_industrialization.inventory.ConfigurableFluidStack;
+import aztech.modern_industrialization.inventory.ConfigurableItemStack;
+import aztech.modern_industrialization.inventory.MIFluidStorage;
+import aztech.modern_industrialization.inventory.MIItemStorage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidConstants;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.material.Fluids;
+
+/**
+ * Measures the cost of the nested simulate/commit transaction patterns used by
+ * pipe networks on MI inventories. Run with {@code /mi benchmark transactions}.
+ */
+public class TransactionBenchmark {
+    private static final int WARMUP_ITERATIONS = 10_000;
+    private static final int ITERATIONS = 100_000;
+    private static final ItemVariant IRON = ItemVariant.of(Items.IRON_INGOT);
+    private static final FluidVariant WATER = FluidVariant.of(Fluids.WATER);
+
+    private final MIItemStorage itemStorage;
+    private final MIFluidStorage fluidStorage;
+
+    private TransactionBenchmark() {
+        List<ConfigurableItemStack> itemStacks = new ArrayList<>();
+        for (int i = 0; i < 9; ++i) {
+            itemStacks.add(ConfigurableItemStack.standardIOSlot(true));
+        }
+        List<ConfigurableFluidStack> fluidStacks = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            fluidStacks.add(ConfigurableFluidStack.standardIOSlot(16 * FluidConstants.BUCKET, true));
+        }
+        this.itemStorage = new MIItemStorage(itemStacks);
+        this.fluidStorage = new MIFluidStorage(fluidStacks);
+    }
+
+    /**
+     * One iteration: like a network transfer, simulate an insertion in a nested
+     * transaction, then perform it, and finally commit or abort the outer
+     * transaction.
+     */
+    private void runIteration(int iteration) {
+        try (Transaction outer = Transaction.openOuter()) {
+            for (int target = 0; target < 4; ++target) {
+                long simulatedItems, simulatedFluid;
+                try (Transaction simulation = outer.openNested()) {
+                    simulatedItems = itemStorage.insert(IRON, 64, simulation);
+                    simulatedFluid = fluidStorage.insert(WATER, FluidConstants.BUCKET, simulation);
+                }
+                try (Transaction nested = outer.openNested()) {
+                    itemStorage.insert(IRON, simulatedItems, nested);
+                    fluidStorage.insert(WATER, simulatedFluid, nested);
+                    try (Transaction innerSimulation = nested.openNested()) {
+                        itemStorage.extract(IRON, 32, innerSimulation);
+                    }
+                    nested.commit();
+                }
+            }
+            // Commit half of the time, and empty the storages afterwards to keep the state stable.
+            if (iteration % 2 == 0) {
+                outer.commit();
+            }
+        }
+        try (Transaction cleanup = Transaction.openOuter()) {
+            itemStorage.extract(IRON, Long.MAX_VALUE, cleanup);
+            fluidStorage.extract(WATER, Long.MAX_VALUE, cleanup);
+            cleanup.commit();
+        }
+    }
+
+    public static String run() {
+        var benchmark = new TransactionBenchmark();
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            benchmark.runIteration(i);
+        }
+
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            benchmark.runIteration(i);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+        return "Nested transactions: %d iterations, %.1f ns/iteration, %.1f bytes allocated/iteration".formatted(ITERATIONS,
+                (double) elapsedNanos / ITERATIONS, (double) allocatedBytes / ITERATIONS);
+    }
+}
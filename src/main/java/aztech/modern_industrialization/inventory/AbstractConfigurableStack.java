@@ -24,23 +24,38 @@
 package aztech.modern_industrialization.inventory;
 
 import aztech.modern_industrialization.util.Simulation;
-import java.util.IdentityHashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import net.fabricmc.fabric.api.transfer.v1.storage.StoragePreconditions;
 import net.fabricmc.fabric.api.transfer.v1.storage.StorageView;
 import net.fabricmc.fabric.api.transfer.v1.storage.TransferVariant;
-import net.fabricmc.fabric.api.transfer.v1.storage.base.ResourceAmount;
 import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
-import net.fabricmc.fabric.api.transfer.v1.transaction.base.SnapshotParticipant;
 import net.minecraft.core.Registry;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 
-public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>> extends SnapshotParticipant<ResourceAmount<K>>
-        implements StorageView<K>, IConfigurableSlot {
-    private final Map<ChangeListener, Object> listeners = new IdentityHashMap<>();
+public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>>
+        implements StorageView<K>, IConfigurableSlot, TransactionContext.CloseCallback, TransactionContext.OuterCloseCallback {
+    private static final Object[] EMPTY_JOURNAL_KEYS = new Object[0];
+    private static final long[] EMPTY_JOURNAL_AMOUNTS = new long[0];
+
+    /**
+     * Incremented every time this stack changes. Users that need to know about
+     * changes should remember the last version they saw and compare it with
+     * {@link #getVersion()} instead of registering a callback.
+     */
+    private long version = 0;
+    /**
+     * Transaction journal, indexed by nesting depth: the key and amount of this
+     * stack before it was first modified in the transaction at that depth, or a
+     * null key if it wasn't modified. Unlike a {@code SnapshotParticipant}, this
+     * doesn't allocate a snapshot object every time the stack is modified in a
+     * transaction, the arrays are reused.
+     */
+    private Object[] journalKeys = EMPTY_JOURNAL_KEYS;
+    private long[] journalAmounts = EMPTY_JOURNAL_AMOUNTS;
     protected K key = getBlankVariant();
     protected long amount = 0;
     protected T lockedInstance = null;
@@ -56,6 +71,7 @@ public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>>
     }
 
     public AbstractConfigurableStack(AbstractConfigurableStack<T, K> other) {
+        this.version = other.version;
         this.key = other.key;
         this.amount = other.amount;
         this.lockedInstance = other.lockedInstance;
@@ -83,16 +99,24 @@ public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>>
         this.pipesExtract = tag.getBoolean("pipesExtract");
     }
 
-    protected void notifyListeners() {
-        ChangeListener.notify(listeners);
+    protected void incrementVersion() {
+        version++;
     }
 
-    public void addListener(ChangeListener listener, Object token) {
-        listeners.put(listener, token);
+    public long getVersion() {
+        return version;
     }
 
-    public void removeListener(ChangeListener listener) {
-        listeners.remove(listener);
+    /**
+     * Sum of the versions of the stacks. Only meaningful as long as the list
+     * contains the same stacks.
+     */
+    public static long getVersionSum(List<? extends AbstractConfigurableStack<?, ?>> stacks) {
+        long sum = 0;
+        for (int i = 0; i < stacks.size(); ++i) {
+            sum += stacks.get(i).version;
+        }
+        return sum;
     }
 
     protected abstract T getEmptyInstance();
@@ -103,6 +127,8 @@ public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>>
 
     protected abstract K readVariantFromNbt(CompoundTag compound);
 
+    protected abstract K readVariantFromPacket(FriendlyByteBuf buf);
+
     protected abstract long getRemainingCapacityFor(K key);
 
     @Override
@@ -134,7 +160,7 @@ public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>>
         if (amount == 0) {
             this.key = getBlankVariant();
         }
-        notifyListeners();
+        incrementVersion();
     }
 
     public void empty() {
@@ -151,7 +177,7 @@ public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>>
 
     public void setKey(K key) {
         this.key = key;
-        notifyListeners();
+        incrementVersion();
     }
 
     public boolean isResourceAllowedByLock(T instance) {
@@ -183,7 +209,7 @@ public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>>
             throw new RuntimeException("Trying to override locked instance");
         machineLocked = true;
         this.lockedInstance = lockedInstance;
-        notifyListeners();
+        incrementVersion();
     }
 
     public void disableMachineLock() {
@@ -223,7 +249,7 @@ public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>>
         } else if (lockedInstance == null) {
             lockedInstance = key.getObject();
         }
-        notifyListeners();
+        incrementVersion();
     }
 
     public boolean canPlayerLock() {
@@ -242,6 +268,7 @@ public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>>
                     if (stack.key.isOf(instance) || (stack.isResourceBlank() && allowEmptyStacks)) {
                         stack.lockedInstance = instance;
                         stack.playerLocked = true;
+                        stack.incrementVersion();
                         return;
                     }
                 }
@@ -257,6 +284,7 @@ public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>>
             if (simulation.isActing()) {
                 lockedInstance = instance;
                 playerLocked = true;
+                incrementVersion();
             }
             return true;
         }
@@ -310,20 +338,51 @@ public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>>
         return amount;
     }
 
-    @Override
-    public ResourceAmount<K> createSnapshot() {
-        return new ResourceAmount<>(key, amount);
+    /**
+     * Must be called before the key or the amount of the stack are modified in a
+     * transaction.
+     */
+    public void updateSnapshots(TransactionContext transaction) {
+        int depth = transaction.nestingDepth();
+        if (depth >= journalKeys.length) {
+            int newLength = Math.max(4, depth + 1);
+            journalKeys = Arrays.copyOf(journalKeys, newLength);
+            journalAmounts = Arrays.copyOf(journalAmounts, newLength);
+        }
+        if (journalKeys[depth] == null) {
+            journalKeys[depth] = key;
+            journalAmounts[depth] = amount;
+            transaction.addCloseCallback(this);
+        }
     }
 
     @Override
-    public void readSnapshot(ResourceAmount<K> ra) {
-        this.amount = ra.amount();
-        this.key = ra.resource();
+    @SuppressWarnings("unchecked")
+    public void onClose(TransactionContext transaction, TransactionContext.Result result) {
+        int depth = transaction.nestingDepth();
+        K journaledKey = (K) journalKeys[depth];
+        long journaledAmount = journalAmounts[depth];
+        journalKeys[depth] = null;
+
+        if (result.wasAborted()) {
+            this.key = journaledKey;
+            this.amount = journaledAmount;
+            incrementVersion();
+        } else if (depth > 0) {
+            // Move the entry to the parent transaction, unless it already has one
+            if (journalKeys[depth - 1] == null) {
+                journalKeys[depth - 1] = journaledKey;
+                journalAmounts[depth - 1] = journaledAmount;
+                transaction.getOpenTransaction(depth - 1).addCloseCallback(this);
+            }
+        } else {
+            transaction.addOuterCloseCallback(this);
+        }
     }
 
     @Override
-    protected void onFinalCommit() {
-        notifyListeners();
+    public void afterOuterClose(TransactionContext.Result result) {
+        incrementVersion();
     }
 
     public CompoundTag toNbt() {
@@ -343,4 +402,88 @@ public abstract class AbstractConfigurableStack<T, K extends TransferVariant<T>>
         tag.putBoolean("pipesExtract", pipesExtract);
         return tag;
     }
+
+    // Bits of the sync mask, see ConfigurableScreenHandler#broadcastChanges.
+    static final int SYNC_AMOUNT = 1;
+    static final int SYNC_KEY = 2;
+    static final int SYNC_LOCK = 4;
+    static final int SYNC_CAPACITY = 8;
+
+    /**
+     * Return which parts of this stack differ from the tracked copy.
+     */
+    int getSyncMask(AbstractConfigurableStack<T, K> tracked) {
+        int mask = 0;
+        if (amount != tracked.amount) {
+            mask |= SYNC_AMOUNT;
+        }
+        if (!key.equals(tracked.key)) {
+            mask |= SYNC_KEY;
+        }
+        if (lockedInstance != tracked.lockedInstance || getFlags() != tracked.getFlags()) {
+            mask |= SYNC_LOCK;
+        }
+        return mask;
+    }
+
+    /**
+     * Copy the state of another stack into this one, used to update tracked
+     * copies without allocating.
+     */
+    void copyFrom(AbstractConfigurableStack<T, K> other) {
+        this.version = other.version;
+        this.key = other.key;
+        this.amount = other.amount;
+        this.lockedInstance = other.lockedInstance;
+        this.playerLocked = other.playerLocked;
+        this.machineLocked = other.machineLocked;
+        this.playerLockable = other.playerLockable;
+        this.playerInsert = other.playerInsert;
+        this.playerExtract = other.playerExtract;
+        this.pipesInsert = other.pipesInsert;
+        this.pipesExtract = other.pipesExtract;
+    }
+
+    void writeSyncDelta(int mask, FriendlyByteBuf buf) {
+        if ((mask & SYNC_AMOUNT) != 0) {
+            buf.writeVarLong(amount);
+        }
+        if ((mask & SYNC_KEY) != 0) {
+            key.toPacket(buf);
+        }
+        if ((mask & SYNC_LOCK) != 0) {
+            buf.writeVarInt(lockedInstance == null ? -1 : getRegistry().getId(lockedInstance));
+            buf.writeByte(getFlags());
+        }
+    }
+
+    void readSyncDelta(int mask, FriendlyByteBuf buf) {
+        if ((mask & SYNC_AMOUNT) != 0) {
+            amount = buf.readVarLong();
+        }
+        if ((mask & SYNC_KEY) != 0) {
+            key = readVariantFromPacket(buf);
+        }
+        if ((mask & SYNC_LOCK) != 0) {
+            int lockedId = buf.readVarInt();
+            lockedInstance = lockedId == -1 ? null : getRegistry().byId(lockedId);
+            setFlags(buf.readByte());
+        }
+        incrementVersion();
+    }
+
+    private int getFlags() {
+        return (playerLocked ? 1 : 0) | (machineLocked ? 2 : 0) | (playerLockable ? 4 : 0) | (playerInsert ? 8 : 0) | (playerExtract ? 16 : 0)
+                | (pipesInsert ? 32 : 0) | (pipesExtract ? 64 : 0);
+    }
+
+    private void setFlags(int flags) {
+        playerLocked = (flags & 1) != 0;
+        machineLocked = (flags & 2) != 0;
+        playerLockable = (flags & 4) != 0;
+        playerInsert = (flags & 8) != 0;
+        playerExtract = (flags & 16) != 0;
+        pipesInsert = (flags & 32) != 0;
+        pipesExtract = (flags & 64) != 0;
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.inventory;
+
+import java.util.function.UnaryOperator;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiLookup;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
+import net.fabricmc.fabric.api.transfer.v1.storage.StorageUtil;
+import net.fabricmc.fabric.api.transfer.v1.storage.TransferVariant;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+
+/**
+ * Auto-extraction from an {@link MIInventory} towards one side.
+ * The target is looked up through a {@link BlockApiCache}, and a move is only attempted if the stacks changed since the
+ * last attempt, or after a back-off delay if the target refused some of the resources.
+ */
+final class AutoExtractTarget<T, K extends TransferVariant<T>> {
+    /**
+     * Maximum delay between two attempts, also used to notice changes that don't affect the stack versions.
+     */
+    private static final int MAX_BACKOFF = 20;
+
+    static long calls = 0, attempts = 0, moves = 0;
+
+    private final BlockApiCache<Storage<K>, Direction> cache;
+    private final Direction direction;
+    private long lastVersion = -1;
+    private long nextAttemptTick = 0;
+    private int backoff = 1;
+
+    AutoExtractTarget(BlockApiLookup<Storage<K>, Direction> lookup, ServerLevel level, BlockPos pos, Direction direction) {
+        this.cache = BlockApiCache.create(lookup, level, pos.relative(direction));
+        this.direction = direction;
+    }
+
+    boolean matches(ServerLevel level, BlockPos pos) {
+        return cache.getWorld() == level && cache.getPos().equals(pos.relative(direction));
+    }
+
+    void extract(MIStorage<T, K, ?> source, UnaryOperator<Storage<K>> targetWrapper) {
+        calls++;
+        long version = AbstractConfigurableStack.getVersionSum(source.stacks);
+        long tick = cache.getWorld().getGameTime();
+        if (version == lastVersion && tick < nextAttemptTick) {
+            return;
+        }
+
+        Storage<K> target = targetWrapper.apply(cache.find(direction.getOpposite()));
+        long moved = 0;
+        if (target != null) {
+            attempts++;
+            moved = StorageUtil.move(source, target, k -> true, Long.MAX_VALUE, null);
+            if (moved > 0) {
+                moves++;
+            }
+        }
+
+        lastVersion = AbstractConfigurableStack.getVersionSum(source.stacks);
+        if (!hasExtractableStack(source)) {
+            // Nothing left to move: wait for the stacks to change.
+            backoff = 1;
+            nextAttemptTick = tick + MAX_BACKOFF;
+        } else if (moved > 0) {
+            // The target accepted something, it might accept more next tick.
+            backoff = 1;
+            nextAttemptTick = tick + 1;
+        } else {
+            nextAttemptTick = tick + backoff;
+            backoff = Math.min(2 * backoff, MAX_BACKOFF);
+        }
+    }
+
+    private static boolean hasExtractableStack(MIStorage<?, ?, ?> source) {
+        for (var stack : source.stacks) {
+            if (stack.getAmount() > 0 && stack.canPipesExtract()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
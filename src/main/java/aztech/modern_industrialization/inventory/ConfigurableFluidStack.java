@@ -39,6 +39,7 @@ import net.fabricmc.fabric.api.transfer.v1.storage.StorageView;
 import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.minecraft.core.Registry;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.Slot;
@@ -159,6 +160,42 @@ public class ConfigurableFluidStack extends AbstractConfigurableStack<Fluid, Flu
         return FluidVariant.fromNbt(compound);
     }
 
+    @Override
+    protected FluidVariant readVariantFromPacket(FriendlyByteBuf buf) {
+        return FluidVariant.fromPacket(buf);
+    }
+
+    @Override
+    int getSyncMask(AbstractConfigurableStack<Fluid, FluidVariant> tracked) {
+        int mask = super.getSyncMask(tracked);
+        if (capacity != ((ConfigurableFluidStack) tracked).capacity) {
+            mask |= SYNC_CAPACITY;
+        }
+        return mask;
+    }
+
+    @Override
+    void copyFrom(AbstractConfigurableStack<Fluid, FluidVariant> other) {
+        super.copyFrom(other);
+        this.capacity = ((ConfigurableFluidStack) other).capacity;
+    }
+
+    @Override
+    void writeSyncDelta(int mask, FriendlyByteBuf buf) {
+        super.writeSyncDelta(mask, buf);
+        if ((mask & SYNC_CAPACITY) != 0) {
+            buf.writeVarLong(capacity);
+        }
+    }
+
+    @Override
+    void readSyncDelta(int mask, FriendlyByteBuf buf) {
+        super.readSyncDelta(mask, buf);
+        if ((mask & SYNC_CAPACITY) != 0) {
+            capacity = buf.readVarLong();
+        }
+    }
+
     public long getCapacity() {
         return capacity;
     }
@@ -181,6 +218,7 @@ public class ConfigurableFluidStack extends AbstractConfigurableStack<Fluid, Flu
         this.capacity = capacity;
         if (amount > capacity)
             amount = capacity;
+        incrementVersion();
     }
 
     public long getRemainingSpace() {
@@ -27,8 +27,7 @@ import aztech.modern_industrialization.MIIdentifier;
 import net.minecraft.resources.ResourceLocation;
 
 public class ConfigurableInventoryPackets {
-    public static final ResourceLocation UPDATE_ITEM_SLOT = new MIIdentifier("update_item_slot");
-    public static final ResourceLocation UPDATE_FLUID_SLOT = new MIIdentifier("update_fluid_slot");
+    public static final ResourceLocation UPDATE_SLOTS = new MIIdentifier("update_slots");
     public static final ResourceLocation LOCK_ALL = new MIIdentifier("lock_all");
     public static final ResourceLocation SET_LOCKING_MODE = new MIIdentifier("set_locking_mode");
     public static final ResourceLocation DO_SLOT_DRAGGING = new MIIdentifier("do_slot_dragging");
@@ -33,6 +33,7 @@ import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
 import net.minecraft.core.Registry;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
@@ -135,6 +136,42 @@ public class ConfigurableItemStack extends AbstractConfigurableStack<Item, ItemV
         return ItemVariant.fromNbt(compound);
     }
 
+    @Override
+    protected ItemVariant readVariantFromPacket(FriendlyByteBuf buf) {
+        return ItemVariant.fromPacket(buf);
+    }
+
+    @Override
+    int getSyncMask(AbstractConfigurableStack<Item, ItemVariant> tracked) {
+        int mask = super.getSyncMask(tracked);
+        if (adjustedCapacity != ((ConfigurableItemStack) tracked).adjustedCapacity) {
+            mask |= SYNC_CAPACITY;
+        }
+        return mask;
+    }
+
+    @Override
+    void copyFrom(AbstractConfigurableStack<Item, ItemVariant> other) {
+        super.copyFrom(other);
+        this.adjustedCapacity = ((ConfigurableItemStack) other).adjustedCapacity;
+    }
+
+    @Override
+    void writeSyncDelta(int mask, FriendlyByteBuf buf) {
+        super.writeSyncDelta(mask, buf);
+        if ((mask & SYNC_CAPACITY) != 0) {
+            buf.writeVarInt(adjustedCapacity);
+        }
+    }
+
+    @Override
+    void readSyncDelta(int mask, FriendlyByteBuf buf) {
+        super.readSyncDelta(mask, buf);
+        if ((mask & SYNC_CAPACITY) != 0) {
+            adjustedCapacity = buf.readVarInt();
+        }
+    }
+
     @Override
     public long getCapacity() {
         return key.isBlank() ? adjustedCapacity : Math.min(adjustedCapacity, key.getItem().getMaxStackSize());
@@ -174,6 +211,7 @@ public class ConfigurableItemStack extends AbstractConfigurableStack<Item, ItemV
             delta = -delta;
         }
         adjustedCapacity = Math.min(64, Math.max((int) amount, adjustedCapacity + delta));
+        incrementVersion();
     }
 
     public int getAdjustedCapacity() {
@@ -220,7 +258,7 @@ public class ConfigurableItemStack extends AbstractConfigurableStack<Item, ItemV
         protected void setRealStack(ItemStack stack) {
             key = ItemVariant.of(stack);
             amount = stack.getCount();
-            notifyListeners();
+            incrementVersion();
             markDirty.run();
         }
 
@@ -24,16 +24,20 @@
 package aztech.modern_industrialization.inventory;
 
 import aztech.modern_industrialization.util.Simulation;
-import io.netty.buffer.Unpooled;
+import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.fabric.api.transfer.v1.context.ContainerItemContext;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
 import net.fabricmc.fabric.api.transfer.v1.item.PlayerInventoryStorage;
+import net.fabricmc.fabric.api.transfer.v1.storage.TransferVariant;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Inventory;
@@ -42,8 +46,10 @@ import net.minecraft.world.inventory.AbstractContainerMenu;
 import net.minecraft.world.inventory.ClickType;
 import net.minecraft.world.inventory.MenuType;
 import net.minecraft.world.inventory.Slot;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
+import net.minecraft.world.level.material.Fluid;
 
 /**
  * The ScreenHandler for a configurable inventory. The first slots must be the
@@ -54,8 +60,8 @@ public abstract class ConfigurableScreenHandler extends AbstractContainerMenu {
     public boolean lockingMode = false;
     protected Inventory playerInventory;
     protected MIInventory inventory;
-    private List<ConfigurableItemStack> trackedItems;
-    private List<ConfigurableFluidStack> trackedFluids;
+    private TrackedStacks<Item, ItemVariant, ConfigurableItemStack> trackedItems;
+    private TrackedStacks<Fluid, FluidVariant, ConfigurableFluidStack> trackedFluids;
     // Groups slots together to avoid shift-click splitting a stack across to unrelated subinventories.
     private final Map<Slot, SlotGroup> slotGroups = new IdentityHashMap<>();
     private final Set<SlotGroup> slotGroupIndices = new LinkedHashSet<>();
@@ -66,8 +72,8 @@ public abstract class ConfigurableScreenHandler extends AbstractContainerMenu {
         this.inventory = inventory;
 
         if (playerInventory.player instanceof ServerPlayer) {
-            trackedItems = ConfigurableItemStack.copyList(inventory.getItemStacks());
-            trackedFluids = ConfigurableFluidStack.copyList(inventory.getFluidStacks());
+            trackedItems = new TrackedStacks<>(inventory.getItemStacks(), ConfigurableItemStack.copyList(inventory.getItemStacks()));
+            trackedFluids = new TrackedStacks<>(inventory.getFluidStacks(), ConfigurableFluidStack.copyList(inventory.getFluidStacks()));
         }
     }
 
@@ -80,28 +86,76 @@ public abstract class ConfigurableScreenHandler extends AbstractContainerMenu {
     @Override
     public void broadcastChanges() {
         if (playerInventory.player instanceof ServerPlayer player) {
-            for (int i = 0; i < trackedItems.size(); i++) {
-                if (!trackedItems.get(i).equals(inventory.getItemStacks().get(i))) {
-                    trackedItems.set(i, new ConfigurableItemStack(inventory.getItemStacks().get(i)));
-                    FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
-                    buf.writeInt(containerId);
-                    buf.writeInt(i);
-                    buf.writeNbt(trackedItems.get(i).toNbt());
-                    ServerPlayNetworking.send(player, ConfigurableInventoryPackets.UPDATE_ITEM_SLOT, buf);
+            // Only check the versions every tick, and send a single packet with the changed fields of all the changed stacks.
+            if (trackedItems.hasChanges() || trackedFluids.hasChanges()) {
+                FriendlyByteBuf buf = PacketByteBufs.create();
+                buf.writeInt(containerId);
+                int changedStacks = trackedItems.writeChanges(buf);
+                changedStacks += trackedFluids.writeChanges(buf);
+                if (changedStacks > 0) {
+                    ServerPlayNetworking.send(player, ConfigurableInventoryPackets.UPDATE_SLOTS, buf);
                 }
             }
-            for (int i = 0; i < trackedFluids.size(); i++) {
-                if (!trackedFluids.get(i).equals(inventory.getFluidStacks().get(i))) {
-                    trackedFluids.set(i, new ConfigurableFluidStack(inventory.getFluidStacks().get(i)));
-                    FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
-                    buf.writeInt(containerId);
-                    buf.writeInt(i);
-                    buf.writeNbt(trackedFluids.get(i).toNbt());
-                    ServerPlayNetworking.send(player, ConfigurableInventoryPackets.UPDATE_FLUID_SLOT, buf);
+        }
+        super.broadcastChanges();
+    }
+
+    /**
+     * Server-side tracking of the stacks last sent to the client.
+     */
+    private static class TrackedStacks<T, K extends TransferVariant<T>, S extends AbstractConfigurableStack<T, K>> {
+        private final List<S> stacks;
+        // The stacks that the versions refer to, in case a stack gets replaced.
+        private final List<S> versionSources;
+        private final long[] versions;
+        private final List<S> copies;
+
+        private TrackedStacks(List<S> stacks, List<S> copies) {
+            this.stacks = stacks;
+            this.versionSources = new ArrayList<>(stacks);
+            this.versions = new long[stacks.size()];
+            this.copies = copies;
+            for (int i = 0; i < stacks.size(); ++i) {
+                versions[i] = stacks.get(i).getVersion();
+            }
+        }
+
+        private boolean hasChanges() {
+            for (int i = 0; i < versions.length; ++i) {
+                S stack = stacks.get(i);
+                if (stack != versionSources.get(i) || stack.getVersion() != versions[i]) {
+                    return true;
                 }
             }
+            return false;
+        }
+
+        /**
+         * Write the changes as (slot index + 1, sync mask, changed fields) entries
+         * followed by a 0, and return the number of changed stacks.
+         */
+        private int writeChanges(FriendlyByteBuf buf) {
+            int changedStacks = 0;
+            for (int i = 0; i < versions.length; ++i) {
+                S stack = stacks.get(i);
+                if (stack != versionSources.get(i) || stack.getVersion() != versions[i]) {
+                    versionSources.set(i, stack);
+                    versions[i] = stack.getVersion();
+
+                    S copy = copies.get(i);
+                    int mask = stack.getSyncMask(copy);
+                    if (mask != 0) {
+                        buf.writeVarInt(i + 1);
+                        buf.writeByte(mask);
+                        stack.writeSyncDelta(mask, buf);
+                        copy.copyFrom(stack);
+                        changedStacks++;
+                    }
+                }
+            }
+            buf.writeVarInt(0);
+            return changedStacks;
         }
-        super.broadcastChanges();
     }
 
     @Override
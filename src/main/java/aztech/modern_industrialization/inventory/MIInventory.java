@@ -29,7 +29,7 @@ import aztech.modern_industrialization.util.StorageUtil2;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
+import java.util.function.UnaryOperator;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidStorage;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
@@ -40,17 +40,28 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.material.Fluid;
 
 public final class MIInventory implements IComponent {
     public static final MIInventory EMPTY;
 
-    private BlockApiCache<Storage<ItemVariant>, Direction> outputCache;
+    /**
+     * Lazily created auto-extraction targets, indexed by direction.
+     */
+    private AutoExtractTarget<Item, ItemVariant>[] itemExtractTargets;
+    private AutoExtractTarget<Fluid, FluidVariant>[] fluidExtractTargets;
 
     public final MIItemStorage itemStorage;
     public final MIFluidStorage fluidStorage;
     public final SlotPositions itemPositions;
     public final SlotPositions fluidPositions;
+    /**
+     * Added to the sum of the stack versions, to keep {@link #getVersion()}
+     * increasing when stacks are replaced.
+     */
+    private long versionOffset = 0;
 
     /**
      * Build a new MI inventory. If you need to access the stacks, make sure to
@@ -73,9 +84,13 @@ public final class MIInventory implements IComponent {
         }
     }
 
-    public void addListener(ChangeListener listener, Object token) {
-        listener.listenAll(getItemStacks(), token);
-        listener.listenAll(getFluidStacks(), token);
+    /**
+     * Return a number that changes every time one of the stacks of this inventory
+     * changes.
+     */
+    public long getVersion() {
+        return AbstractConfigurableStack.getVersionSum(itemStorage.stacks) + AbstractConfigurableStack.getVersionSum(fluidStorage.stacks)
+                + versionOffset;
     }
 
     public List<ConfigurableItemStack> getItemStacks() {
@@ -86,28 +101,44 @@ public final class MIInventory implements IComponent {
         return fluidStorage.stacks;
     }
 
+    @SuppressWarnings("unchecked")
     public void autoExtractItems(Level world, BlockPos pos, Direction direction) {
-        if (outputCache == null) {
-            outputCache = BlockApiCache.create(ItemStorage.SIDED, (ServerLevel) world, pos.relative(direction));
-        } else if (outputCache.getWorld() != world || !outputCache.getPos().equals(pos.relative(direction))) {
-            // Needed in case we change the output side...
-            outputCache = BlockApiCache.create(ItemStorage.SIDED, (ServerLevel) world, pos.relative(direction));
+        if (itemExtractTargets == null) {
+            itemExtractTargets = new AutoExtractTarget[6];
         }
-
-        Storage<ItemVariant> target = outputCache.find(direction.getOpposite());
-        target = StorageUtil2.wrapInventory(target);
-
-        if (target != null) {
-            StorageUtil.move(itemStorage, target, k -> true, Long.MAX_VALUE, null);
+        var target = itemExtractTargets[direction.get3DDataValue()];
+        if (target == null || !target.matches((ServerLevel) world, pos)) {
+            target = new AutoExtractTarget<>(ItemStorage.SIDED, (ServerLevel) world, pos, direction);
+            itemExtractTargets[direction.get3DDataValue()] = target;
         }
+        target.extract(itemStorage, StorageUtil2::wrapInventory);
     }
 
+    @SuppressWarnings("unchecked")
     public void autoExtractFluids(Level world, BlockPos pos, Direction direction) {
-        Storage<FluidVariant> target = FluidStorage.SIDED.find(world, pos.relative(direction), direction.getOpposite());
-
-        if (target != null) {
-            StorageUtil.move(fluidStorage, target, k -> true, Long.MAX_VALUE, null);
+        if (fluidExtractTargets == null) {
+            fluidExtractTargets = new AutoExtractTarget[6];
+        }
+        var target = fluidExtractTargets[direction.get3DDataValue()];
+        if (target == null || !target.matches((ServerLevel) world, pos)) {
+            target = new AutoExtractTarget<>(FluidStorage.SIDED, (ServerLevel) world, pos, direction);
+            fluidExtractTargets[direction.get3DDataValue()] = target;
         }
+        target.extract(fluidStorage, UnaryOperator.identity());
+    }
+
+    /**
+     * @return The number of auto-extraction calls, of move attempts, and of moves that transferred something, since
+     *         the last reset.
+     */
+    public static long[] getAutoExtractCounters() {
+        return new long[] { AutoExtractTarget.calls, AutoExtractTarget.attempts, AutoExtractTarget.moves };
+    }
+
+    public static void resetAutoExtractCounters() {
+        AutoExtractTarget.calls = 0;
+        AutoExtractTarget.attempts = 0;
+        AutoExtractTarget.moves = 0;
     }
 
     public void autoInsertItems(Level world, BlockPos pos, Direction direction) {
@@ -132,6 +163,8 @@ public final class MIInventory implements IComponent {
     }
 
     public void readNbt(CompoundTag tag) {
+        long previousVersion = getVersion();
+
         List<ConfigurableItemStack> newItemStacks = new ArrayList<>();
         List<ConfigurableFluidStack> newFluidStacks = new ArrayList<>();
 
@@ -140,6 +173,9 @@ public final class MIInventory implements IComponent {
 
         SlotConfig.readSlotList(itemStorage.stacks, newItemStacks);
         SlotConfig.readSlotList(fluidStorage.stacks, newFluidStacks);
+
+        // The new stacks start at version 0, make sure the inventory version still increases
+        versionOffset += previousVersion + 1 - getVersion();
     }
 
     static {
@@ -24,6 +24,7 @@
 package aztech.modern_industrialization.machines;
 
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 
 public interface IComponent {
     void writeNbt(CompoundTag tag);
@@ -38,6 +39,20 @@ public interface IComponent {
         readNbt(tag);
     }
 
+    /**
+     * Write the client data of this component to a delta update, sent after
+     * {@link MachineBlockEntity#syncComponent}. Defaults to the client NBT.
+     */
+    default void writeClientDelta(FriendlyByteBuf buf) {
+        CompoundTag tag = new CompoundTag();
+        writeClientNbt(tag);
+        buf.writeNbt(tag);
+    }
+
+    default void readClientDelta(FriendlyByteBuf buf) {
+        readClientNbt(buf.readNbt());
+    }
+
     interface ClientOnly extends IComponent {
         @Override
         default void writeNbt(CompoundTag tag) {
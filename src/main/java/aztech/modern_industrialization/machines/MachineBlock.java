@@ -23,9 +23,9 @@
  */
 package aztech.modern_industrialization.machines;
 
-import aztech.modern_industrialization.api.TickableBlock;
 import aztech.modern_industrialization.inventory.ConfigurableItemStack;
 import aztech.modern_industrialization.machines.models.MachineCasing;
+import aztech.modern_industrialization.util.Tickable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,12 +40,19 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.EntityBlock;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityTicker;
+import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
 import org.jetbrains.annotations.Nullable;
 
-public class MachineBlock extends Block implements TickableBlock {
+/**
+ * On the server, machines are ticked by {@link MachineTickScheduler} and don't register a block entity ticker.
+ * On the client they keep a vanilla ticker, for client-side effects such as the overclock particles.
+ */
+public class MachineBlock extends Block implements EntityBlock {
 
     private final BiFunction<BlockPos, BlockState, MachineBlockEntity> blockEntityConstructor;
     private volatile MachineBlockEntity blockEntityInstance = null; // Used for tooltip, information, BER registration, etc...
@@ -66,6 +73,18 @@ public class MachineBlock extends Block implements TickableBlock {
         return blockEntityConstructor.apply(pos, state);
     }
 
+    @Override
+    public <T extends BlockEntity> @Nullable BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
+        if (!level.isClientSide()) {
+            return null;
+        }
+        return (l, p, s, be) -> {
+            if (be instanceof Tickable tickable) {
+                tickable.tick();
+            }
+        };
+    }
+
     @SuppressWarnings("deprecation")
     @Override
     public InteractionResult use(BlockState state, Level world, BlockPos pos, Player player, InteractionHand hand, BlockHitResult hit) {
@@ -42,6 +42,9 @@ import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.fabric.api.rendering.data.v1.RenderAttachmentBlockEntity;
 import net.fabricmc.fabric.api.screenhandler.v1.ExtendedScreenHandlerFactory;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidStorage;
@@ -54,6 +57,7 @@ import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientGamePacketListener;
 import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
@@ -77,16 +81,34 @@ public abstract class MachineBlockEntity extends FastBlockEntity
         implements ExtendedScreenHandlerFactory, RenderAttachmentBlockEntity, WrenchableBlockEntity {
     public final List<GuiComponent.Server> guiComponents = new ArrayList<>();
     private final List<IComponent> icomponents = new ArrayList<>();
+    /**
+     * Shared lookup tables for the components, computed on first use.
+     */
+    private MachineComponentLayout layout = null;
     public final MachineGuiParameters guiParams;
     /**
      * Server-side only: true if the next call to sync() will trigger a remesh.
      */
     private boolean syncCausesRemesh = true;
+    /**
+     * Server-side only: components to send in the next delta update, see {@link #syncComponent}.
+     */
+    private long dirtyClientComponents = 0;
+    private boolean deltaCausesRemesh = false;
     /**
      * Caches the current redstone status. Invalidated by {@link MachineBlock}.
      * {@code null} if the current status is not known.
      */
     private Boolean hasRedstoneHighSignal = null;
+    /**
+     * Server-side only: true if the machine is registered in the {@link MachineTickScheduler}.
+     */
+    boolean scheduled = false;
+    /**
+     * Server-side only: game time at which the machine wakes up, and inventory version when it went to sleep.
+     */
+    private long sleepUntil = 0;
+    private long sleepInventoryVersion;
 
     public final OrientationComponent orientation;
     public final PlacedByComponent placedBy;
@@ -102,10 +124,19 @@ public abstract class MachineBlockEntity extends FastBlockEntity
 
     protected final void registerGuiComponent(GuiComponent.Server... components) {
         Collections.addAll(guiComponents, components);
+        layout = null;
     }
 
     protected final void registerComponents(IComponent... components) {
         Collections.addAll(icomponents, components);
+        layout = null;
+    }
+
+    private MachineComponentLayout getLayout() {
+        if (layout == null) {
+            layout = MachineComponentLayout.get(getType(), icomponents, guiComponents);
+        }
+        return layout;
     }
 
     /**
@@ -118,37 +149,27 @@ public abstract class MachineBlockEntity extends FastBlockEntity
      */
     @SuppressWarnings("unchecked")
     public <S extends GuiComponent.Server> S getComponent(ResourceLocation componentId) {
-        for (GuiComponent.Server component : guiComponents) {
-            if (component.getId().equals(componentId)) {
-                return (S) component;
-            }
-        }
-        throw new RuntimeException("Couldn't find component " + componentId);
-    }
-
-    private <T> List<T> tryGetComponent(Class<T> clazz) {
-        List<T> components = new ArrayList<>();
-        for (var component : icomponents) {
-            if (clazz.isInstance(component)) {
-                components.add((T) component);
-            }
+        int index = getLayout().getGuiComponentIndex(componentId);
+        if (index < 0) {
+            throw new RuntimeException("Couldn't find component " + componentId);
         }
-        return components;
+        return (S) guiComponents.get(index);
     }
 
+    @SuppressWarnings("unchecked")
     public final <T> void forComponentType(Class<T> clazz, Consumer<? super T> action) {
-        List<T> component = tryGetComponent(clazz);
-        for (T c : component) {
-            action.accept(c);
+        for (int index : getLayout().getComponentIndices(clazz)) {
+            action.accept((T) icomponents.get(index));
         }
     }
 
+    @SuppressWarnings("unchecked")
     public <T, R> R mapComponentOrDefault(Class<T> clazz, Function<? super T, ? extends R> action, R defaultValue) {
-        List<T> components = tryGetComponent(clazz);
-        if (components.isEmpty()) {
+        int[] indices = getLayout().getComponentIndices(clazz);
+        if (indices.length == 0) {
             return defaultValue;
-        } else if (components.size() == 1) {
-            return action.apply(components.get(0));
+        } else if (indices.length == 1) {
+            return action.apply((T) icomponents.get(indices[0]));
         } else {
             throw new RuntimeException("Multiple components of type " + clazz.getName() + " found");
         }
@@ -222,6 +243,62 @@ public abstract class MachineBlockEntity extends FastBlockEntity
         return getModelData();
     }
 
+    @Override
+    public void clearRemoved() {
+        super.clearRemoved();
+        if (level instanceof ServerLevel serverLevel) {
+            MachineTickScheduler.add(serverLevel, this);
+        }
+    }
+
+    @Override
+    public void setChanged() {
+        super.setChanged();
+        wakeUp();
+    }
+
+    /**
+     * Stop ticking this machine until it is woken up. The machine wakes up when its inventory changes,
+     * when {@link #setChanged} is called (which includes energy changes), when a neighbor changes,
+     * or after at most {@code maxTicks} ticks.
+     *
+     * <p>
+     * Only call this at the end of the tick, after any call to {@link #setChanged}.
+     */
+    protected final void sleep(int maxTicks) {
+        sleepUntil = level.getGameTime() + maxTicks;
+        sleepInventoryVersion = getInventory().getVersion();
+    }
+
+    /**
+     * Sleep with the default timer of 5 seconds. See {@link #sleep(int)}.
+     */
+    protected final void sleep() {
+        sleep(100);
+    }
+
+    public final void wakeUp() {
+        sleepUntil = 0;
+    }
+
+    public final boolean isSleeping() {
+        return level != null && level.getGameTime() < sleepUntil;
+    }
+
+    /**
+     * Used by the scheduler: check whether the machine is still sleeping, waking it up if its inventory changed.
+     */
+    boolean shouldKeepSleeping(long gameTime) {
+        if (gameTime >= sleepUntil) {
+            return false;
+        }
+        if (getInventory().getVersion() != sleepInventoryVersion) {
+            sleepUntil = 0;
+            return false;
+        }
+        return true;
+    }
+
     @Override
     public void sync() {
         sync(true);
@@ -232,6 +309,67 @@ public abstract class MachineBlockEntity extends FastBlockEntity
         super.sync();
     }
 
+    /**
+     * Send the client data of a single component to the clients, at the end of the tick. Cheaper than {@link #sync()}
+     * since only the components that were synced this way are sent.
+     */
+    public void syncComponent(IComponent component, boolean forceRemesh) {
+        int index = -1;
+        for (int i = 0; i < icomponents.size(); ++i) {
+            if (icomponents.get(i) == component) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0 || index >= 64) {
+            sync(forceRemesh);
+            return;
+        }
+        if (dirtyClientComponents == 0) {
+            MachineTickScheduler.scheduleClientDelta((ServerLevel) level, this);
+        }
+        dirtyClientComponents |= 1L << index;
+        deltaCausesRemesh |= forceRemesh;
+    }
+
+    void sendClientDelta() {
+        long dirty = dirtyClientComponents;
+        dirtyClientComponents = 0;
+        if (dirty == 0 || isRemoved()) {
+            return;
+        }
+        var players = PlayerLookup.tracking(this);
+        if (!players.isEmpty()) {
+            FriendlyByteBuf buf = PacketByteBufs.create();
+            buf.writeBlockPos(worldPosition);
+            buf.writeBoolean(deltaCausesRemesh);
+            buf.writeVarLong(dirty);
+            for (int i = 0; i < icomponents.size() && i < 64; ++i) {
+                if ((dirty & (1L << i)) != 0) {
+                    icomponents.get(i).writeClientDelta(buf);
+                }
+            }
+            var packet = ServerPlayNetworking.createS2CPacket(MachinePackets.S2C.COMPONENT_DELTA, buf);
+            for (ServerPlayer player : players) {
+                player.connection.send(packet);
+            }
+        }
+        deltaCausesRemesh = false;
+    }
+
+    public void readClientDelta(FriendlyByteBuf buf) {
+        boolean forceChunkRemesh = buf.readBoolean();
+        long dirty = buf.readVarLong();
+        for (int i = 0; i < icomponents.size() && i < 64; ++i) {
+            if ((dirty & (1L << i)) != 0) {
+                icomponents.get(i).readClientDelta(buf);
+            }
+        }
+        if (forceChunkRemesh) {
+            WorldHelper.forceChunkRemesh(level, worldPosition);
+        }
+    }
+
     @Override
     public CompoundTag getUpdateTag() {
         CompoundTag tag = new CompoundTag();
@@ -312,6 +450,7 @@ public abstract class MachineBlockEntity extends FastBlockEntity
     }
 
     void refreshRedstoneStatus() {
+        wakeUp();
         this.hasRedstoneHighSignal = level.hasNeighborSignal(worldPosition);
     }
 }
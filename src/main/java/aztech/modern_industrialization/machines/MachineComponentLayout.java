@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.machines;
+
+import aztech.modern_industrialization.machines.gui.GuiComponent;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+
+/**
+ * The component layout of a machine block entity type: the classes of its components in registration order, and the
+ * indices of its GUI components by id. Computed once per {@link BlockEntityType} and shared by all the block entities
+ * of that type, so that component lookups don't have to scan the component lists.
+ */
+final class MachineComponentLayout {
+    private static final Map<BlockEntityType<?>, MachineComponentLayout> LAYOUTS = new ConcurrentHashMap<>();
+    private static final int[] NO_INDICES = new int[0];
+
+    private final Class<?>[] componentClasses;
+    private final ResourceLocation[] guiComponentIds;
+    private final Object2IntOpenHashMap<ResourceLocation> guiComponentIndices = new Object2IntOpenHashMap<>();
+    /**
+     * Indices of the components that are instances of a class, filled lazily for each queried class.
+     */
+    private final Map<Class<?>, int[]> componentIndices = new ConcurrentHashMap<>();
+
+    private MachineComponentLayout(List<IComponent> components, List<GuiComponent.Server> guiComponents) {
+        this.componentClasses = new Class<?>[components.size()];
+        for (int i = 0; i < componentClasses.length; ++i) {
+            componentClasses[i] = components.get(i).getClass();
+        }
+        this.guiComponentIds = new ResourceLocation[guiComponents.size()];
+        for (int i = 0; i < guiComponentIds.length; ++i) {
+            guiComponentIds[i] = guiComponents.get(i).getId();
+            guiComponentIndices.putIfAbsent(guiComponentIds[i], i);
+        }
+        guiComponentIndices.defaultReturnValue(-1);
+    }
+
+    /**
+     * Return the layout of the given block entity type, computing it from the components of the block entity if needed.
+     * If the components don't match the shared layout of their type, a separate layout is returned.
+     */
+    static MachineComponentLayout get(BlockEntityType<?> type, List<IComponent> components, List<GuiComponent.Server> guiComponents) {
+        MachineComponentLayout layout = LAYOUTS.computeIfAbsent(type, t -> new MachineComponentLayout(components, guiComponents));
+        if (!layout.matches(components, guiComponents)) {
+            layout = new MachineComponentLayout(components, guiComponents);
+        }
+        return layout;
+    }
+
+    private boolean matches(List<IComponent> components, List<GuiComponent.Server> guiComponents) {
+        if (components.size() != componentClasses.length || guiComponents.size() != guiComponentIds.length) {
+            return false;
+        }
+        for (int i = 0; i < componentClasses.length; ++i) {
+            if (components.get(i).getClass() != componentClasses[i]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < guiComponentIds.length; ++i) {
+            if (!guiComponents.get(i).getId().equals(guiComponentIds[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int[] getComponentIndices(Class<?> clazz) {
+        int[] indices = componentIndices.get(clazz);
+        if (indices == null) {
+            indices = componentIndices.computeIfAbsent(clazz, this::computeComponentIndices);
+        }
+        return indices;
+    }
+
+    private int[] computeComponentIndices(Class<?> clazz) {
+        int count = 0;
+        int[] indices = new int[componentClasses.length];
+        for (int i = 0; i < componentClasses.length; ++i) {
+            if (clazz.isAssignableFrom(componentClasses[i])) {
+                indices[count++] = i;
+            }
+        }
+        return count == 0 ? NO_INDICES : Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * @return The index of the GUI component with the given id, or -1 if there is none.
+     */
+    int getGuiComponentIndex(ResourceLocation id) {
+        return guiComponentIndices.getInt(id);
+    }
+}
@@ -39,6 +39,7 @@ import net.minecraft.world.inventory.AbstractContainerMenu;
 public class MachinePackets {
     public static class S2C {
         public static final ResourceLocation COMPONENT_SYNC = new MIIdentifier("machine_component_sync");
+        public static final ResourceLocation COMPONENT_DELTA = new MIIdentifier("machine_component_delta");
     }
 
     public static class C2S {
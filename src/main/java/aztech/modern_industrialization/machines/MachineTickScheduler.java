@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.machines;
+
+import aztech.modern_industrialization.util.Tickable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.CrashReport;
+import net.minecraft.CrashReportCategory;
+import net.minecraft.ReportedException;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+
+/**
+ * Ticks all the server-side machines, instead of registering one vanilla
+ * block entity ticker per machine.
+ *
+ * <p>
+ * Machines are ticked at the end of each level tick, sorted by chunk and then
+ * by position so that neighbouring machines are ticked together. A machine can
+ * go to sleep using {@link MachineBlockEntity#sleep}, in which case it is
+ * skipped until it is woken up by {@link MachineBlockEntity#wakeUp}, by a
+ * change of its inventory version, or when its sleep timer expires.
+ *
+ * <p>
+ * The client delta updates requested by {@link MachineBlockEntity#syncComponent} are also sent at the end of the level
+ * tick, once per machine.
+ */
+public final class MachineTickScheduler {
+    private static final Map<ServerLevel, LevelMachines> levels = new IdentityHashMap<>();
+    private static final Comparator<MachineBlockEntity> TICK_ORDER = Comparator
+            .comparingLong((MachineBlockEntity machine) -> ChunkPos.asLong(machine.getBlockPos()))
+            .thenComparingLong(machine -> machine.getBlockPos().asLong());
+    /**
+     * Same as the vanilla delay after which the block entities of a level
+     * without players or forced chunks stop ticking.
+     */
+    private static final int EMPTY_LEVEL_TICKS = 300;
+
+    private MachineTickScheduler() {
+    }
+
+    public static void init() {
+        ServerTickEvents.END_WORLD_TICK.register(level -> {
+            LevelMachines machines = levels.get(level);
+            if (machines != null) {
+                machines.tick(level);
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> levels.clear());
+    }
+
+    /**
+     * Register a machine that was just added to a server level. Does nothing if
+     * the machine is already registered.
+     */
+    static void add(ServerLevel level, MachineBlockEntity machine) {
+        if (!machine.scheduled && machine instanceof Tickable) {
+            machine.scheduled = true;
+            levels.computeIfAbsent(level, l -> new LevelMachines()).pending.add(machine);
+        }
+    }
+
+    /**
+     * Send the client delta of a machine at the end of the level tick.
+     */
+    static void scheduleClientDelta(ServerLevel level, MachineBlockEntity machine) {
+        levels.computeIfAbsent(level, l -> new LevelMachines()).pendingClientDeltas.add(machine);
+    }
+
+    /**
+     * Statistics about the machines of a level, as of its last tick.
+     *
+     * @param registered The number of machines known to the scheduler.
+     * @param ticked     The number of machines that were ticked.
+     * @param sleeping   The number of machines that were skipped because they
+     *                   are sleeping.
+     * @param unloaded   The number of machines that were skipped because their
+     *                   chunk is not ticking.
+     */
+    public record Stats(int registered, int ticked, int sleeping, int unloaded) {
+    }
+
+    public static Map<ServerLevel, Stats> getStats() {
+        Map<ServerLevel, Stats> stats = new IdentityHashMap<>();
+        levels.forEach((level, machines) -> stats.put(level, machines.lastStats));
+        return stats;
+    }
+
+    private static class LevelMachines {
+        private final List<MachineBlockEntity> machines = new ArrayList<>();
+        /**
+         * Machines added since the last tick, possibly by another machine's tick.
+         */
+        private final List<MachineBlockEntity> pending = new ArrayList<>();
+        /**
+         * Machines with components to send to the clients at the end of the tick.
+         */
+        private final List<MachineBlockEntity> pendingClientDeltas = new ArrayList<>();
+        private int emptyTicks = 0;
+        private Stats lastStats = new Stats(0, 0, 0, 0);
+
+        private void tick(ServerLevel level) {
+            if (!pending.isEmpty()) {
+                machines.addAll(pending);
+                pending.clear();
+                machines.sort(TICK_ORDER);
+            }
+
+            if (!level.players().isEmpty() || !level.getForcedChunks().isEmpty()) {
+                emptyTicks = 0;
+            } else if (emptyTicks < EMPTY_LEVEL_TICKS) {
+                emptyTicks++;
+            }
+            boolean tickLevel = emptyTicks < EMPTY_LEVEL_TICKS;
+
+            long gameTime = level.getGameTime();
+            int ticked = 0, sleeping = 0, unloaded = 0;
+            int kept = 0;
+            // Iterate by index, removing the removed machines in place.
+            for (int i = 0; i < machines.size(); ++i) {
+                MachineBlockEntity machine = machines.get(i);
+                if (machine.isRemoved()) {
+                    machine.scheduled = false;
+                    continue;
+                }
+                machines.set(kept++, machine);
+
+                BlockPos pos = machine.getBlockPos();
+                if (!tickLevel || !level.shouldTickBlocksAt(pos)) {
+                    unloaded++;
+                } else if (machine.shouldKeepSleeping(gameTime)) {
+                    sleeping++;
+                } else {
+                    ticked++;
+                    tickMachine(machine);
+                }
+            }
+            machines.subList(kept, machines.size()).clear();
+
+            lastStats = new Stats(machines.size(), ticked, sleeping, unloaded);
+
+            for (int i = 0; i < pendingClientDeltas.size(); ++i) {
+                pendingClientDeltas.get(i).sendClientDelta();
+            }
+            pendingClientDeltas.clear();
+        }
+    }
+
+    private static void tickMachine(MachineBlockEntity machine) {
+        try {
+            ((Tickable) machine).tick();
+        } catch (Throwable throwable) {
+            CrashReport crashReport = CrashReport.forThrowable(throwable, "Ticking block entity");
+            CrashReportCategory category = crashReport.addCategory("Block entity being ticked");
+            machine.fillCrashReportCategory(category);
+            throw new ReportedException(crashReport);
+        }
+    }
+}
@@ -122,6 +122,11 @@ public abstract class AbstractStorageMachineBlockEntity extends MachineBlockEnti
                     EnergyHelper.autoOutput(this, side, to, extractable);
                 }
             }
+
+            if (energy.getEu() == 0) {
+                // Nothing to output until energy is inserted.
+                sleep();
+            }
         }
     }
 
@@ -74,6 +74,8 @@ public class ConfigurableChestMachineBlockEntity extends MachineBlockEntity impl
         if (!level.isClientSide()) {
             if (orientation.extractItems) {
                 inventory.autoExtractItems(level, worldPosition, orientation.outputDirection);
+            } else {
+                sleep();
             }
         }
     }
@@ -75,6 +75,8 @@ public class ConfigurableTankMachineBlockEntity extends MachineBlockEntity imple
         if (!level.isClientSide()) {
             if (orientation.extractFluids) {
                 inventory.autoExtractFluids(level, worldPosition, orientation.outputDirection);
+            } else {
+                sleep();
             }
         }
     }
@@ -175,10 +175,11 @@ public class GeneratorMachineBlockEntity extends MachineBlockEntity implements T
         if (level == null || level.isClientSide)
             return;
 
+        long euProduced = 0;
         if (!redstoneControl.doAllowNormalOperation(this)) {
             isActiveComponent.updateActive(false, this);
         } else {
-            long euProduced = fluidItemConsumer.getEuProduction(inventory.getFluidStacks(),
+            euProduced = fluidItemConsumer.getEuProduction(inventory.getFluidStacks(),
                     inventory.getItemStacks(),
                     energy.getRemainingCapacity());
 
@@ -187,6 +188,11 @@ public class GeneratorMachineBlockEntity extends MachineBlockEntity implements T
         }
         EnergyHelper.autoOutput(this, orientation, outputTier, extractable);
         setChanged();
+
+        if (euProduced == 0 && energy.getEu() == 0 && !isActiveComponent.isActive) {
+            // Out of fuel or disabled by redstone, and no longer shown as active: wait for fuel or a redstone change.
+            sleep();
+        }
     }
 
     @Override
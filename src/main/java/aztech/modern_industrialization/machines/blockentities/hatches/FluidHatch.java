@@ -88,4 +88,9 @@ public class FluidHatch extends HatchBlockEntity {
             }
         }
     }
+
+    @Override
+    protected boolean canSleep() {
+        return !orientation.extractFluids;
+    }
 }
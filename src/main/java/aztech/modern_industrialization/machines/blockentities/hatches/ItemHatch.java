@@ -88,4 +88,9 @@ public class ItemHatch extends HatchBlockEntity {
             }
         }
     }
+
+    @Override
+    protected boolean canSleep() {
+        return !orientation.extractItems;
+    }
 }
@@ -110,13 +110,18 @@ public class NuclearHatch extends HatchBlockEntity implements INuclearTile {
         return inventory;
     }
 
+    @Override
+    protected boolean canSleep() {
+        return false;
+    }
+
     @Override
     public final void tick() {
         super.tick();
         this.clearMachineLock();
 
         if (isFluid) {
-            fluidNeutronProductTick(1, true);
+            fluidNeutronProductTick(1, level.getRandom(), true);
         } else {
             ItemVariant itemVariant = (ItemVariant) this.getVariant();
             if (!itemVariant.isBlank() && itemVariant.getItem() instanceof NuclearAbsorbable abs) {
@@ -201,7 +206,7 @@ public class NuclearHatch extends HatchBlockEntity implements INuclearTile {
     }
 
     @Override
-    public int neutronGenerationTick(NuclearEfficiencyHistoryComponent efficiencyHistory) {
+    public int neutronGenerationTick(NuclearEfficiencyHistoryComponent efficiencyHistory, RandomSource random) {
         double meanNeutron = getMeanNeutronAbsorption(NeutronType.BOTH);
         int neutronsProduced = 0;
 
@@ -216,13 +221,11 @@ public class NuclearHatch extends HatchBlockEntity implements INuclearTile {
 
                 ItemStack stack = itemVariant.toStack((int) getVariantAmount());
 
-                var rand = this.level.getRandom();
-
                 if (abs instanceof NuclearFuel fuel) {
-                    neutronsProduced = fuel.simulateDesintegration(meanNeutron, stack, this.nuclearReactorComponent.getTemperature(), rand,
+                    neutronsProduced = fuel.simulateDesintegration(meanNeutron, stack, this.nuclearReactorComponent.getTemperature(), random,
                             efficiencyHistory);
                 } else {
-                    abs.simulateAbsorption(meanNeutron, stack, rand);
+                    abs.simulateAbsorption(meanNeutron, stack, random);
                 }
 
                 if (abs.getRemainingDesintegrations(stack) == 0) {
@@ -262,7 +265,7 @@ public class NuclearHatch extends HatchBlockEntity implements INuclearTile {
         return (int) Math.floor(value) + (rand.nextDouble() < (value % 1) ? 1 : 0);
     }
 
-    public void fluidNeutronProductTick(int neutron, boolean simul) {
+    public void fluidNeutronProductTick(int neutron, RandomSource random, boolean simul) {
         if (isFluid) {
             @Nullable
             INuclearComponent<FluidVariant> component = (INuclearComponent<FluidVariant>) this.getComponent();
@@ -271,11 +274,8 @@ public class NuclearHatch extends HatchBlockEntity implements INuclearTile {
                 return;
             }
 
-            int actualRecipe = randIntFromDouble(neutron * component.getNeutronProductProbability(), this.getLevel().getRandom());
-
-            if (simul) {
-                actualRecipe = neutron;
-            }
+            // Don't draw from the random source when simulating, to keep the grid simulation reproducible.
+            int actualRecipe = simul ? neutron : randIntFromDouble(neutron * component.getNeutronProductProbability(), random);
 
             if (simul || actualRecipe > 0) {
                 try (Transaction tx = Transaction.openOuter()) {
@@ -306,9 +306,9 @@ public class NuclearHatch extends HatchBlockEntity implements INuclearTile {
     }
 
     @Override
-    public void nuclearTick(NuclearEfficiencyHistoryComponent efficiencyHistory) {
+    public void nuclearTick(NuclearEfficiencyHistoryComponent efficiencyHistory, RandomSource random) {
         neutronHistory.tick();
-        fluidNeutronProductTick(randIntFromDouble(neutronHistory.getAverageReceived(NeutronType.BOTH), this.getLevel().getRandom()), false);
+        fluidNeutronProductTick(randIntFromDouble(neutronHistory.getAverageReceived(NeutronType.BOTH), random), random, false);
 
         if (isFluid) {
             double euProduced = ((SteamHeaterComponent) nuclearReactorComponent).tick(Collections.singletonList(inventory.getFluidStacks().get(0)),
@@ -153,9 +153,16 @@ public abstract class AbstractCraftingMultiblockBlockEntity extends MultiblockMa
             shapeMatcher.unlinkHatches();
             shapeMatcher.unregisterListeners(level);
             shapeMatcher = null;
+            onUnlink();
         }
     }
 
+    /**
+     * Called after the hatches were unlinked, to release anything registered in {@link #onSuccessfulMatch}.
+     */
+    protected void onUnlink() {
+    }
+
     private enum OperatingState {
         /**
          * Shape is not matched, don't do anything.
@@ -53,6 +53,7 @@ public abstract class AbstractElectricCraftingMultiblockBlockEntity extends Abst
 
     protected final RedstoneControlComponent redstoneControl;
     protected final List<EnergyComponent> energyInputs = new ArrayList<>();
+    private final EnergyPool energyPool = new EnergyPool();
 
     @Override
     public List<EnergyComponent> getEnergyComponents() {
@@ -65,6 +66,12 @@ public abstract class AbstractElectricCraftingMultiblockBlockEntity extends Abst
         for (HatchBlockEntity hatch : shapeMatcher.getMatchedHatches()) {
             hatch.appendEnergyInputs(energyInputs);
         }
+        energyPool.setComponents(energyInputs);
+    }
+
+    @Override
+    protected void onUnlink() {
+        energyPool.setComponents(List.of());
     }
 
     @Override
@@ -94,13 +101,7 @@ public abstract class AbstractElectricCraftingMultiblockBlockEntity extends Abst
 
     @Override
     public final long consumeEu(long max, Simulation simulation) {
-        long total = 0;
-
-        for (EnergyComponent energyComponent : energyInputs) {
-            total += energyComponent.consumeEu(max - total, simulation);
-        }
-
-        return total;
+        return energyPool.consumeEu(max, simulation);
     }
 
     @Override
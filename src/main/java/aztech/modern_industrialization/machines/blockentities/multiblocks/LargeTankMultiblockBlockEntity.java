@@ -82,14 +82,16 @@ public class LargeTankMultiblockBlockEntity extends MultiblockMachineBlockEntity
                 false);
     }
 
-    private static final ShapeTemplate[] shapeTemplates;
-
-    static {
-        shapeTemplates = new ShapeTemplate[75];
-        for (int i = 0; i < shapeTemplates.length; i++) {
-            shapeTemplates[i] = buildShape(i);
+    /**
+     * Built on first use, most of the 75 shapes are never used.
+     */
+    private static final ShapeTemplate[] shapeTemplates = new ShapeTemplate[75];
+
+    private static synchronized ShapeTemplate getShape(int index) {
+        if (shapeTemplates[index] == null) {
+            shapeTemplates[index] = buildShape(index);
         }
-
+        return shapeTemplates[index];
     }
 
     public static void registerFluidAPI(BlockEntityType<?> bet) {
@@ -156,7 +158,7 @@ public class LargeTankMultiblockBlockEntity extends MultiblockMachineBlockEntity
 
         super(bep, new MachineGuiParameters.Builder("large_tank", false).build(), new OrientationComponent.Params(false, false, false));
 
-        activeShape = new ActiveShapeComponent(shapeTemplates);
+        activeShape = new ActiveShapeComponent(shapeTemplates.length, LargeTankMultiblockBlockEntity::getShape);
         fluidStorage = new FluidStorageComponent();
 
         this.registerComponents(activeShape, fluidStorage);
@@ -44,6 +44,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
 
 public class NuclearReactorMultiblockBlockEntity extends MultiblockMachineBlockEntity implements Tickable {
 
@@ -58,6 +59,7 @@ public class NuclearReactorMultiblockBlockEntity extends MultiblockMachineBlockE
     private final RedstoneControlComponent redstoneControl;
     private final IsActiveComponent isActive;
     private final NuclearEfficiencyHistoryComponent efficiencyHistory;
+    private final NuclearRandomComponent nuclearRandom;
     private ShapeMatcher shapeMatcher;
 
     private NuclearGrid nuclearGrid;
@@ -71,7 +73,8 @@ public class NuclearReactorMultiblockBlockEntity extends MultiblockMachineBlockE
         this.efficiencyHistory = new NuclearEfficiencyHistoryComponent();
         this.isActive = new IsActiveComponent();
         this.redstoneControl = new RedstoneControlComponent();
-        registerComponents(activeShape, isActive, efficiencyHistory, redstoneControl);
+        this.nuclearRandom = new NuclearRandomComponent();
+        registerComponents(activeShape, isActive, efficiencyHistory, redstoneControl, nuclearRandom);
         this.registerGuiComponent(new NuclearReactorGui.Server(this::sendData), new SlotPanel.Server(this).withRedstoneControl(redstoneControl));
 
         registerGuiComponent(new ShapeSelection.Server(new ShapeSelection.Behavior() {
@@ -89,6 +92,14 @@ public class NuclearReactorMultiblockBlockEntity extends MultiblockMachineBlockE
                 true)));
     }
 
+    /**
+     * Fix the seed of the simulation, to make the next ticks reproducible.
+     */
+    public void setSimulationSeed(long seed) {
+        nuclearRandom.setSeed(seed);
+        setChanged();
+    }
+
     public NuclearReactorGui.Data sendData() {
         if (shapeValid.shapeValid) {
             return dataSupplier.get();
@@ -113,11 +124,20 @@ public class NuclearReactorMultiblockBlockEntity extends MultiblockMachineBlockE
             link();
             if (shapeValid.shapeValid) {
                 if (redstoneControl.doAllowNormalOperation(this)) {
-                    isActive.updateActive(NuclearGridHelper.simulate(nuclearGrid, efficiencyHistory), this);
+                    nuclearGrid.getRandom().setSeed(nuclearRandom.getTickSeed((ServerLevel) level, worldPosition));
+                    boolean hasFuel;
+                    if (NuclearSimulationScheduler.isEnabled()) {
+                        // The scheduler ticks the efficiency history after applying the results.
+                        hasFuel = NuclearSimulationScheduler.schedule(this, nuclearGrid, efficiencyHistory);
+                    } else {
+                        hasFuel = NuclearGridHelper.simulate(nuclearGrid, efficiencyHistory);
+                        efficiencyHistory.tick();
+                    }
+                    isActive.updateActive(hasFuel, this);
                 } else {
                     isActive.updateActive(false, this);
+                    efficiencyHistory.tick();
                 }
-                efficiencyHistory.tick();
             } else {
                 isActive.updateActive(false, this);
                 efficiencyHistory.clear();
@@ -154,7 +174,8 @@ public class NuclearReactorMultiblockBlockEntity extends MultiblockMachineBlockE
             hatchesGrid[x][y] = (NuclearHatch) hatch;
         }
 
-        nuclearGrid = new NuclearGrid(size, size, hatchesGrid);
+        // The random source is reseeded every tick from the NuclearRandomComponent.
+        nuclearGrid = new NuclearGrid(size, size, hatchesGrid, 0);
 
         dataSupplier = () -> {
             Optional<INuclearTileData>[] tilesData = new Optional[size * size];
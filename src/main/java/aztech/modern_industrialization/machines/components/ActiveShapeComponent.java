@@ -26,19 +26,30 @@ package aztech.modern_industrialization.machines.components;
 import aztech.modern_industrialization.machines.IComponent;
 import aztech.modern_industrialization.machines.multiblocks.MultiblockMachineBlockEntity;
 import aztech.modern_industrialization.machines.multiblocks.ShapeTemplate;
+import java.util.function.IntFunction;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.util.Mth;
 
 public class ActiveShapeComponent implements IComponent {
-    public final ShapeTemplate[] shapeTemplates;
+    private final int shapeCount;
+    private final IntFunction<ShapeTemplate> shapeTemplates;
     private int activeShape = 0;
 
     public ActiveShapeComponent(ShapeTemplate[] shapeTemplates) {
+        this(shapeTemplates.length, i -> shapeTemplates[i]);
+    }
+
+    /**
+     * Use a function for large shape families, so that each shape can be built on
+     * first use.
+     */
+    public ActiveShapeComponent(int shapeCount, IntFunction<ShapeTemplate> shapeTemplates) {
+        this.shapeCount = shapeCount;
         this.shapeTemplates = shapeTemplates;
     }
 
     public void incrementShape(MultiblockMachineBlockEntity machine, int delta) {
-        setShape(machine, Mth.clamp(activeShape + delta, 0, shapeTemplates.length - 1));
+        setShape(machine, Mth.clamp(activeShape + delta, 0, shapeCount - 1));
     }
 
     public void setShape(MultiblockMachineBlockEntity machine, int newShape) {
@@ -51,7 +62,7 @@ public class ActiveShapeComponent implements IComponent {
     }
 
     public ShapeTemplate getActiveShape() {
-        return shapeTemplates[activeShape];
+        return shapeTemplates.apply(activeShape);
     }
 
     public int getActiveShapeIndex() {
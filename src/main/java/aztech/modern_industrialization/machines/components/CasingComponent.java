@@ -112,7 +112,7 @@ public class CasingComponent implements IComponent, DropableComponent {
                 }
                 be.setChanged();
                 if (!be.getLevel().isClientSide()) {
-                    be.sync();
+                    be.syncComponent(this, true);
                 }
                 // Play a nice sound :)
                 playCasingPlaceSound(be);
@@ -153,14 +153,14 @@ public class CasingComponent implements IComponent, DropableComponent {
         if (casing.isEmpty()) {
             tierCasing = defaultCasing;
             be.setChanged();
-            be.sync();
+            be.syncComponent(this, true);
             be.getLevel().blockUpdated(be.getBlockPos(), Blocks.AIR);
         }
         var tier = getCasingTier(casing.getItem());
         if (tier != null && tier != defaultCasing) {
             tierCasing = tier;
             be.setChanged();
-            be.sync();
+            be.syncComponent(this, true);
             be.getLevel().blockUpdated(be.getBlockPos(), Blocks.AIR);
         }
         playCasingPlaceSound(be);
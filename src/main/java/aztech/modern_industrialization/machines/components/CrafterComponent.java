@@ -35,8 +35,7 @@ import aztech.modern_industrialization.machines.MachineBlockEntity;
 import aztech.modern_industrialization.machines.recipe.MachineRecipe;
 import aztech.modern_industrialization.machines.recipe.MachineRecipeType;
 import aztech.modern_industrialization.machines.recipe.condition.MachineProcessCondition;
-import aztech.modern_industrialization.stats.PlayerStatistics;
-import aztech.modern_industrialization.stats.PlayerStatisticsData;
+import aztech.modern_industrialization.stats.StatisticsBuffer;
 import aztech.modern_industrialization.util.Simulation;
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
@@ -75,7 +74,10 @@ public class CrafterComponent implements IComponent.ServerOnly {
 
         List<ConfigurableFluidStack> getFluidOutputs();
 
-        int hash();
+        /**
+         * Return a number that changes every time the inventory changes.
+         */
+        long getVersion();
     }
 
     public interface Behavior {
@@ -104,20 +106,19 @@ public class CrafterComponent implements IComponent.ServerOnly {
 
         @Nullable
         UUID getOwnerUuid();
-
-        default PlayerStatistics getStatsOrDummy() {
-            var uuid = getOwnerUuid();
-            if (uuid == null) {
-                return PlayerStatistics.DUMMY;
-            } else {
-                return PlayerStatisticsData.get(getCrafterWorld().getServer()).get(uuid);
-            }
-        }
     }
 
     private final Inventory inventory;
     private final Behavior behavior;
 
+    /**
+     * Statistics buffer of {@link #statisticsOwner}, looked up again when the
+     * owner of the machine changes.
+     */
+    private StatisticsBuffer statisticsBuffer = null;
+    @Nullable
+    private UUID statisticsOwner = null;
+
     private MachineRecipe activeRecipe = null;
     private ResourceLocation delayedActiveRecipe;
 
@@ -131,7 +132,7 @@ public class CrafterComponent implements IComponent.ServerOnly {
     private long previousBaseEu = -1;
     private long previousMaxEu = -1;
 
-    private int lastInvHash = 0;
+    private long lastInvVersion = 0;
     private int lastForcedTick = 0;
 
     public float getProgress() {
@@ -317,8 +318,8 @@ public class CrafterComponent implements IComponent.ServerOnly {
         if (efficiencyTicks > 0) {
             return Collections.singletonList(activeRecipe);
         } else {
-            int currentHash = inventory.hash();
-            if (currentHash == lastInvHash) {
+            long currentVersion = inventory.getVersion();
+            if (currentVersion == lastInvVersion) {
                 if (lastForcedTick == 0) {
                     lastForcedTick = 100;
                 } else {
@@ -326,7 +327,7 @@ public class CrafterComponent implements IComponent.ServerOnly {
                     return Collections.emptyList();
                 }
             } else {
-                lastInvHash = currentHash;
+                lastInvVersion = currentVersion;
             }
 
             ServerLevel serverWorld = (ServerLevel) behavior.getCrafterWorld();
@@ -402,6 +403,15 @@ public class CrafterComponent implements IComponent.ServerOnly {
         this.maxEfficiencyTicks = tag.getInt("maxEfficiencyTicks");
     }
 
+    private StatisticsBuffer getStatisticsBuffer() {
+        UUID owner = behavior.getOwnerUuid();
+        if (statisticsBuffer == null || owner != statisticsOwner) {
+            statisticsBuffer = StatisticsBuffer.get(owner);
+            statisticsOwner = owner;
+        }
+        return statisticsBuffer;
+    }
+
     /**
      * cachedItemCounts must be correct when this function is called, and are
      * guaranteed to be correct after this call
@@ -422,7 +432,7 @@ public class CrafterComponent implements IComponent.ServerOnly {
                 if (stack.getAmount() > 0 && input.matches(stack.getResource().toStack())) { // TODO: ItemStack creation slow?
                     int taken = Math.min((int) stack.getAmount(), remainingAmount);
                     if (taken > 0 && !simulate) {
-                        behavior.getStatsOrDummy().addUsedItems(stack.getResource().getItem(), taken);
+                        getStatisticsBuffer().addUsedItems(stack.getResource().getItem(), taken);
                     }
                     stack.decrement(taken);
                     remainingAmount -= taken;
@@ -453,7 +463,7 @@ public class CrafterComponent implements IComponent.ServerOnly {
                 if (stack.getResource().equals(FluidVariant.of(input.fluid))) {
                     long taken = Math.min(remainingAmount, stack.getAmount());
                     if (taken > 0 && !simulate) {
-                        behavior.getStatsOrDummy().addUsedFluids(stack.getResource().getFluid(), taken);
+                        getStatisticsBuffer().addUsedFluids(stack.getResource().getFluid(), taken);
                     }
                     stack.decrement(taken);
                     remainingAmount -= taken;
@@ -513,7 +523,7 @@ public class CrafterComponent implements IComponent.ServerOnly {
                             locksToToggle.add(stackId - 1);
                             lockItems.add(output.item);
                             if (!simulate) {
-                                behavior.getStatsOrDummy().addProducedItems(output.item, ins);
+                                getStatisticsBuffer().addProducedItems(output.item, ins);
                             }
                         }
                         if (remainingAmount == 0)
@@ -565,7 +575,7 @@ public class CrafterComponent implements IComponent.ServerOnly {
                             locksToToggle.add(j);
                             lockFluids.add(output.fluid);
                             if (!simulate) {
-                                behavior.getStatsOrDummy().addProducedFluids(output.fluid, inserted);
+                                getStatisticsBuffer().addProducedFluids(output.fluid, inserted);
                             }
                         }
                         if (inserted < output.amount) {
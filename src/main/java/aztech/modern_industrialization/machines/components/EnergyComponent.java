@@ -28,17 +28,25 @@ import aztech.modern_industrialization.api.energy.MIEnergyStorage;
 import aztech.modern_industrialization.machines.IComponent;
 import aztech.modern_industrialization.util.Simulation;
 import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.fabricmc.fabric.api.transfer.v1.transaction.base.SnapshotParticipant;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import org.jetbrains.annotations.Nullable;
 
 public class EnergyComponent implements IComponent.ServerOnly {
     private long storedEu;
     private final Supplier<Long> capacity;
     private final BlockEntity blockEntity; // used to call setChanged()
+    /**
+     * Notified every time the stored energy changes, including transaction rollbacks. Null if there is no listener.
+     */
+    @Nullable
+    private List<Runnable> changeListeners = null;
 
     private final SnapshotParticipant<Long> participant = new SnapshotParticipant<>() {
         @Override
@@ -49,6 +57,7 @@ public class EnergyComponent implements IComponent.ServerOnly {
         @Override
         protected void readSnapshot(Long snapshot) {
             storedEu = snapshot;
+            notifyChange();
         }
 
         @Override
@@ -87,8 +96,33 @@ public class EnergyComponent implements IComponent.ServerOnly {
         setEu(tag.getLong("storedEu"), false);
     }
 
+    public void addChangeListener(Runnable listener) {
+        if (changeListeners == null) {
+            changeListeners = new ArrayList<>(1);
+        }
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Runnable listener) {
+        if (changeListeners != null) {
+            changeListeners.remove(listener);
+            if (changeListeners.isEmpty()) {
+                changeListeners = null;
+            }
+        }
+    }
+
+    private void notifyChange() {
+        if (changeListeners != null) {
+            for (int i = 0; i < changeListeners.size(); ++i) {
+                changeListeners.get(i).run();
+            }
+        }
+    }
+
     private void setEu(long eu, boolean update) {
         this.storedEu = Math.min(eu, capacity.get());
+        notifyChange();
 
         if (update) {
             blockEntity.setChanged();
@@ -133,6 +167,7 @@ public class EnergyComponent implements IComponent.ServerOnly {
                 long inserted = Math.min(maxAmount, capacity.get() - getEu());
                 participant.updateSnapshots(transaction);
                 storedEu += inserted;
+                notifyChange();
                 return inserted;
             }
 
@@ -171,6 +206,7 @@ public class EnergyComponent implements IComponent.ServerOnly {
                 long extracted = Math.min(maxAmount, getEu());
                 participant.updateSnapshots(transaction);
                 storedEu -= extracted;
+                notifyChange();
                 return extracted;
             }
 
@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.machines.components;
+
+import aztech.modern_industrialization.util.Simulation;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pooled view of several energy components, for example the energy hatches of a multiblock.
+ *
+ * <p>
+ * The total stored energy is cached and invalidated by change notifications from the components, so that simulated
+ * consumption doesn't have to visit every component. Actual consumption starts from a round-robin cursor, to drain the
+ * components evenly.
+ */
+public class EnergyPool {
+    private final List<EnergyComponent> components = new ArrayList<>();
+    private final Runnable invalidateListener = this::invalidate;
+    private long cachedTotal = 0;
+    private boolean totalValid = true;
+    /**
+     * True while the pool itself consumes energy: the cached total is updated directly instead of being invalidated.
+     */
+    private boolean consuming = false;
+    private int cursor = 0;
+
+    /**
+     * Replace the pooled components.
+     */
+    public void setComponents(List<EnergyComponent> newComponents) {
+        for (EnergyComponent component : components) {
+            component.removeChangeListener(invalidateListener);
+        }
+        components.clear();
+        components.addAll(newComponents);
+        for (EnergyComponent component : components) {
+            component.addChangeListener(invalidateListener);
+        }
+        cursor = 0;
+        invalidate();
+    }
+
+    private void invalidate() {
+        if (!consuming) {
+            totalValid = false;
+        }
+    }
+
+    public long getTotalEu() {
+        if (!totalValid) {
+            long total = 0;
+            for (EnergyComponent component : components) {
+                total += component.getEu();
+            }
+            cachedTotal = total;
+            totalValid = true;
+        }
+        return cachedTotal;
+    }
+
+    public long consumeEu(long max, Simulation simulation) {
+        Preconditions.checkArgument(max >= 0, "May not consume < 0 energy.");
+        long available = Math.min(max, getTotalEu());
+        if (!simulation.isActing() || available == 0) {
+            return available;
+        }
+
+        long consumed = 0;
+        consuming = true;
+        try {
+            int size = components.size();
+            for (int i = 0; i < size && consumed < available; ++i) {
+                int index = (cursor + i) % size;
+                consumed += components.get(index).consumeEu(available - consumed, Simulation.ACT);
+                cursor = (index + 1) % size;
+            }
+        } finally {
+            consuming = false;
+        }
+        cachedTotal -= consumed;
+        return consumed;
+    }
+}
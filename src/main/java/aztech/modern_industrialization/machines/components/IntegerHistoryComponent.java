@@ -25,92 +25,160 @@ package aztech.modern_industrialization.machines.components;
 
 import aztech.modern_industrialization.machines.IComponent;
 import java.util.Arrays;
-import java.util.EnumMap;
-import java.util.Map;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
 
 /**
  * Tracks a history of values for different enum values as keys.
  * Values will be serialized using the toString() function of the enum.
+ *
+ * <p>
+ * The histories of all keys share one ring buffer, and the sum of each history
+ * is kept up to date, so a tick is O(1) per key. Histories are serialized
+ * newest value first, as zigzag varint deltas between consecutive values. The
+ * old int array format is still read.
  */
 public class IntegerHistoryComponent<K extends Enum<K>> implements IComponent {
-
-    protected final Map<K, int[]> histories;
-    protected final int[] updatingValues; // indexed by enum ordinal
-    protected final double[] averages; // indexed by enum ordinal
-
     private final K[] keys;
     private final int tickHistorySize;
 
+    /**
+     * Indexed by {@code ordinal * tickHistorySize + slot}.
+     */
+    private final int[] values;
+    /**
+     * Slot of the newest value, the oldest value is in the next slot.
+     */
+    private int head = 0;
+    private final long[] sums; // indexed by enum ordinal
+    private final int[] updatingValues; // indexed by enum ordinal
+
     public IntegerHistoryComponent(Class<K> keyType, int tickHistorySize) {
         this.keys = keyType.getEnumConstants();
         this.tickHistorySize = tickHistorySize;
 
-        this.histories = new EnumMap<>(keyType);
+        this.values = new int[keys.length * tickHistorySize];
+        this.sums = new long[keys.length];
         this.updatingValues = new int[keys.length];
-        this.averages = new double[keys.length];
-
-        for (K key : keys) {
-            histories.put(key, new int[tickHistorySize]);
-        }
     }
 
     @Override
     public void writeNbt(CompoundTag tag) {
+        byte[] buffer = null;
         for (K key : keys) {
-            tag.putIntArray(key.toString(), histories.get(key));
+            int base = key.ordinal() * tickHistorySize;
+            if (isEmpty(base)) {
+                // A missing key is read as an empty history.
+                continue;
+            }
+            if (buffer == null) {
+                buffer = new byte[5 * tickHistorySize];
+            }
+
+            int length = 0;
+            int previous = 0;
+            for (int age = 0; age < tickHistorySize; ++age) {
+                int value = values[base + slotOfAge(age)];
+                int delta = value - previous; // may overflow, the sum when reading will overflow back
+                previous = value;
+                int zigzag = (delta << 1) ^ (delta >> 31);
+                while ((zigzag & ~0x7F) != 0) {
+                    buffer[length++] = (byte) ((zigzag & 0x7F) | 0x80);
+                    zigzag >>>= 7;
+                }
+                buffer[length++] = (byte) zigzag;
+            }
+            tag.putByteArray(key.toString(), Arrays.copyOf(buffer, length));
         }
     }
 
     @Override
     public void readNbt(CompoundTag tag) {
+        head = 0;
+        Arrays.fill(values, 0);
+        Arrays.fill(sums, 0);
+
         for (K key : keys) {
             String keyString = key.toString();
-            if (tag.contains(keyString)) {
+            int base = key.ordinal() * tickHistorySize;
+            if (tag.getTagType(keyString) == Tag.TAG_BYTE_ARRAY) {
+                if (!readDeltas(tag.getByteArray(keyString), base)) {
+                    Arrays.fill(values, base, base + tickHistorySize, 0);
+                }
+            } else if (tag.getTagType(keyString) == Tag.TAG_INT_ARRAY) {
                 int[] array = tag.getIntArray(keyString);
                 if (array.length == tickHistorySize) {
-                    histories.put(key, array);
-                    continue;
+                    for (int age = 0; age < tickHistorySize; ++age) {
+                        values[base + slotOfAge(age)] = array[age];
+                    }
+                }
+            }
+
+            long sum = 0;
+            for (int slot = 0; slot < tickHistorySize; ++slot) {
+                sum += values[base + slot];
+            }
+            sums[key.ordinal()] = sum;
+        }
+    }
+
+    /**
+     * @return false if the encoded history is malformed.
+     */
+    private boolean readDeltas(byte[] bytes, int base) {
+        int position = 0;
+        int value = 0;
+        for (int age = 0; age < tickHistorySize; ++age) {
+            int zigzag = 0;
+            for (int shift = 0;; shift += 7) {
+                if (position >= bytes.length || shift > 28) {
+                    return false;
+                }
+                byte b = bytes[position++];
+                zigzag |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
                 }
             }
-            histories.put(key, new int[tickHistorySize]);
+            value += (zigzag >>> 1) ^ -(zigzag & 1);
+            values[base + slotOfAge(age)] = value;
         }
+        return position == bytes.length;
+    }
 
-        for (K key : keys) {
-            double avg = 0;
-            int[] values = histories.get(key);
-            for (int value : values) {
-                avg += value;
+    private boolean isEmpty(int base) {
+        for (int slot = 0; slot < tickHistorySize; ++slot) {
+            if (values[base + slot] != 0) {
+                return false;
             }
-            averages[key.ordinal()] = avg / tickHistorySize;
         }
+        return true;
+    }
+
+    private int slotOfAge(int age) {
+        int slot = head - age;
+        return slot < 0 ? slot + tickHistorySize : slot;
     }
 
     public double getAverage(K key) {
-        double ret = averages[key.ordinal()];
+        double ret = (double) sums[key.ordinal()] / tickHistorySize;
         // Round to zero if very small - negative values might lead to problems.
         return Math.abs(ret) < 1e-9 ? 0 : ret;
     }
 
     public void clear() {
-        for (var array : histories.values()) {
-            Arrays.fill(array, 0);
-        }
+        Arrays.fill(values, 0);
+        Arrays.fill(sums, 0);
         Arrays.fill(updatingValues, 0);
-        Arrays.fill(averages, 0);
     }
 
     public void tick() {
-        for (K key : keys) {
-            int i = key.ordinal();
-            int[] valuesArray = histories.get(key);
-
-            // Update average
-            averages[i] += (double) (updatingValues[i] - valuesArray[tickHistorySize - 1]) / tickHistorySize;
-
-            // Shift values by 1 and add updating value at the beginning.
-            System.arraycopy(valuesArray, 0, valuesArray, 1, tickHistorySize - 1);
-            valuesArray[0] = updatingValues[i];
+        // The oldest value is replaced by the updating value.
+        head = head + 1 == tickHistorySize ? 0 : head + 1;
+        for (int i = 0; i < keys.length; ++i) {
+            int index = i * tickHistorySize + head;
+            sums[i] += (long) updatingValues[i] - values[index];
+            values[index] = updatingValues[i];
             updatingValues[i] = 0;
         }
     }
@@ -26,14 +26,30 @@ package aztech.modern_industrialization.machines.components;
 import aztech.modern_industrialization.machines.IComponent;
 import aztech.modern_industrialization.machines.MachineBlockEntity;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 
+/**
+ * Whether the machine should be displayed as active. A machine is shown as active as soon as it becomes active, but
+ * only shown as inactive after {@link #DEACTIVATION_DELAY} consecutive inactive updates, so that machines that are
+ * briefly idle between two operations don't resync their client state every time.
+ */
 public class IsActiveComponent implements IComponent.ClientOnly {
+    private static final int DEACTIVATION_DELAY = 20;
+
     public boolean isActive = false;
+    private int inactiveUpdates = 0;
 
     public void updateActive(boolean newActive, MachineBlockEntity be) {
-        if (newActive != isActive) {
-            isActive = newActive;
-            be.sync(false);
+        if (newActive) {
+            inactiveUpdates = 0;
+            if (!isActive) {
+                isActive = true;
+                be.syncComponent(this, false);
+            }
+        } else if (isActive && ++inactiveUpdates >= DEACTIVATION_DELAY) {
+            inactiveUpdates = 0;
+            isActive = false;
+            be.syncComponent(this, false);
         }
     }
 
@@ -46,4 +62,14 @@ public class IsActiveComponent implements IComponent.ClientOnly {
     public void readClientNbt(CompoundTag tag) {
         isActive = tag.getBoolean("isActive");
     }
+
+    @Override
+    public void writeClientDelta(FriendlyByteBuf buf) {
+        buf.writeBoolean(isActive);
+    }
+
+    @Override
+    public void readClientDelta(FriendlyByteBuf buf) {
+        isActive = buf.readBoolean();
+    }
 }
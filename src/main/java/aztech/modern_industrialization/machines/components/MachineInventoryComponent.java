@@ -23,7 +23,6 @@
  */
 package aztech.modern_industrialization.machines.components;
 
-import aztech.modern_industrialization.inventory.ChangeListener;
 import aztech.modern_industrialization.inventory.ConfigurableFluidStack;
 import aztech.modern_industrialization.inventory.ConfigurableItemStack;
 import aztech.modern_industrialization.inventory.MIInventory;
@@ -41,19 +40,6 @@ public class MachineInventoryComponent implements CrafterComponent.Inventory, IC
 
     public final MIInventory inventory;
 
-    private int invHash = 0;
-    private final ChangeListener listener = new ChangeListener() {
-        @Override
-        protected void onChange() {
-            invHash++;
-        }
-
-        @Override
-        protected boolean isValid(Object token) {
-            return true;
-        }
-    };
-
     public MachineInventoryComponent(List<ConfigurableItemStack> itemInputs, List<ConfigurableItemStack> itemOutputs,
             List<ConfigurableFluidStack> fluidInputs, List<ConfigurableFluidStack> fluidOutputs, SlotPositions itemPositions,
             SlotPositions fluidPositions) {
@@ -70,7 +56,6 @@ public class MachineInventoryComponent implements CrafterComponent.Inventory, IC
         fluidStacks.addAll(fluidOutputs);
 
         this.inventory = new MIInventory(itemStacks, fluidStacks, itemPositions, fluidPositions);
-        this.inventory.addListener(listener, null);
     }
 
     @Override
@@ -94,8 +79,8 @@ public class MachineInventoryComponent implements CrafterComponent.Inventory, IC
     }
 
     @Override
-    public int hash() {
-        return invHash;
+    public long getVersion() {
+        return inventory.getVersion();
     }
 
     @Override
@@ -106,6 +91,5 @@ public class MachineInventoryComponent implements CrafterComponent.Inventory, IC
     @Override
     public void readNbt(CompoundTag tag) {
         this.inventory.readNbt(tag);
-        this.inventory.addListener(listener, null);
     }
 }
@@ -24,7 +24,6 @@
 package aztech.modern_industrialization.machines.components;
 
 import aztech.modern_industrialization.inventory.AbstractConfigurableStack;
-import aztech.modern_industrialization.inventory.ChangeListener;
 import aztech.modern_industrialization.inventory.ConfigurableFluidStack;
 import aztech.modern_industrialization.inventory.ConfigurableItemStack;
 import aztech.modern_industrialization.machines.multiblocks.HatchBlockEntity;
@@ -41,20 +40,14 @@ public class MultiblockInventoryComponent implements CrafterComponent.Inventory
     private final List<ConfigurableFluidStack> fluidInputs = new ArrayList<>();
     private final List<ConfigurableFluidStack> fluidOutputs = new ArrayList<>();
 
-    private int invHash = 0;
-    private final ChangeListener listener = new ChangeListener() {
-        @Override
-        protected void onChange() {
-            invHash++;
-        }
-
-        @Override
-        protected boolean isValid(Object token) {
-            return true;
-        }
-    };
+    /**
+     * Added to the sum of the stack versions, to keep {@link #getVersion()}
+     * increasing when the hatches change.
+     */
+    private long versionOffset = 0;
 
     public void rebuild(ShapeMatcher shapeMatcher) {
+        long previousVersion = getVersion();
         // Sort the hatches by height for the distillation tower
         List<HatchBlockEntity> sortedHatches = new ArrayList<>(shapeMatcher.getMatchedHatches());
         sortedHatches.sort(Comparator.comparing(h -> h.getBlockPos().getY()));
@@ -63,23 +56,17 @@ public class MultiblockInventoryComponent implements CrafterComponent.Inventory
         rebuildList(sortedHatches, itemOutputs, HatchBlockEntity::appendItemOutputs);
         rebuildList(sortedHatches, fluidInputs, HatchBlockEntity::appendFluidInputs);
         rebuildList(sortedHatches, fluidOutputs, HatchBlockEntity::appendFluidOutputs);
-        // Update hash in case the slots have changed
-        invHash++;
+        // Update version in case the slots have changed
+        versionOffset += previousVersion + 1 - getVersion();
     }
 
     private <T, Stack extends AbstractConfigurableStack<T, ? extends TransferVariant<T>>> void rebuildList(
             List<HatchBlockEntity> sortedHatches, List<Stack> stacks, BiConsumer<HatchBlockEntity, List<Stack>> appender) {
-        for (var stack : stacks) {
-            stack.removeListener(listener);
-        }
-
         stacks.clear();
         // Add all hatch slots
         for (HatchBlockEntity hatch : sortedHatches) {
             appender.accept(hatch, stacks);
         }
-
-        listener.listenAll(stacks, null);
     }
 
     @Override
@@ -103,7 +90,8 @@ public class MultiblockInventoryComponent implements CrafterComponent.Inventory
     }
 
     @Override
-    public int hash() {
-        return invHash;
+    public long getVersion() {
+        return AbstractConfigurableStack.getVersionSum(itemInputs) + AbstractConfigurableStack.getVersionSum(itemOutputs)
+                + AbstractConfigurableStack.getVersionSum(fluidInputs) + AbstractConfigurableStack.getVersionSum(fluidOutputs) + versionOffset;
     }
 }
@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.machines.components;
+
+import aztech.modern_industrialization.machines.IComponent;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.levelgen.RandomSupport;
+
+/**
+ * Seed of the nuclear reactor simulation. The random source of the grid is reseeded every tick from the seed and the
+ * game time, so the simulation is reproducible for a fixed seed, even across shape rematches and reloads.
+ */
+public class NuclearRandomComponent implements IComponent.ServerOnly {
+    private boolean hasSeed = false;
+    private long seed;
+
+    /**
+     * Return the seed to use for the current tick, using the world seed and the reactor position if no seed was set.
+     */
+    public long getTickSeed(ServerLevel level, BlockPos pos) {
+        long baseSeed = hasSeed ? seed : level.getSeed() ^ pos.asLong();
+        return RandomSupport.mixStafford13(baseSeed + level.getGameTime() * RandomSupport.GOLDEN_RATIO_64);
+    }
+
+    public void setSeed(long seed) {
+        this.hasSeed = true;
+        this.seed = seed;
+    }
+
+    @Override
+    public void writeNbt(CompoundTag tag) {
+        if (hasSeed) {
+            tag.putLong("nuclearSeed", seed);
+        }
+    }
+
+    @Override
+    public void readNbt(CompoundTag tag) {
+        hasSeed = tag.contains("nuclearSeed");
+        seed = tag.getLong("nuclearSeed");
+    }
+}
@@ -23,6 +23,7 @@
  */
 package aztech.modern_industrialization.machines.gui;
 
+import aztech.modern_industrialization.MIConfig;
 import aztech.modern_industrialization.inventory.SlotGroup;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
@@ -70,6 +71,27 @@ public final class GuiComponent {
          */
         void writeCurrentData(FriendlyByteBuf buf);
 
+        /**
+         * Write the current data to the packet byte buf, knowing the data that the
+         * client already has, and return the data that the client will have after
+         * reading it. Used instead of {@link #writeCurrentData(FriendlyByteBuf)} when
+         * syncing after the screen was opened, components with a lot of data can
+         * override it to only send what changed.
+         */
+        default D writeCurrentData(FriendlyByteBuf buf, D cachedData) {
+            writeCurrentData(buf);
+            return copyData();
+        }
+
+        /**
+         * Minimum number of ticks between two syncs of this component. Components
+         * whose data changes every tick can return a higher value to reduce the
+         * number of updates sent to the client.
+         */
+        default int getSyncInterval() {
+            return 1;
+        }
+
         /**
          * Return the id of the component. Must match that of the {@code GuiComponentClient}
          * registered with {@code GuiComponentsClient#register}.
@@ -77,6 +99,23 @@ public final class GuiComponent {
         ResourceLocation getId();
     }
 
+    /**
+     * Sync interval of the bars that change almost every tick while a machine is
+     * running (progress, energy, efficiency, temperature), see
+     * {@link MIConfig#machineGuiBarSyncInterval}.
+     */
+    public static int getBarSyncInterval() {
+        return Math.max(1, MIConfig.getConfig().machineGuiBarSyncInterval);
+    }
+
+    /**
+     * Round a value in [0, 1] to a multiple of {@code 1 / steps}, so that changes
+     * that would not be visible on the client don't trigger a sync.
+     */
+    public static float quantize(float value, int steps) {
+        return (float) Math.round(value * steps) / steps;
+    }
+
     /**
      * Convenience override when no data needs to be synced.
      */
@@ -38,6 +38,11 @@ import net.minecraft.world.entity.player.Player;
 public class MachineMenuServer extends MachineMenuCommon {
     public final MachineBlockEntity blockEntity;
     protected final List trackedData;
+    /**
+     * Remaining ticks before each component may be synced again, see
+     * {@link GuiComponent.Server#getSyncInterval()}.
+     */
+    private final int[] syncCooldowns;
 
     public MachineMenuServer(int syncId, Inventory playerInventory, MachineBlockEntity blockEntity, MachineGuiParameters guiParams) {
         super(syncId, playerInventory, blockEntity.getInventory(), guiParams, blockEntity.guiComponents);
@@ -46,22 +51,37 @@ public class MachineMenuServer extends MachineMenuCommon {
         for (GuiComponent.Server component : blockEntity.guiComponents) {
             trackedData.add(component.copyData());
         }
+        syncCooldowns = new int[blockEntity.guiComponents.size()];
     }
 
     @Override
     public void broadcastChanges() {
         super.broadcastChanges();
+        // All the components that need a sync are sent in a single packet: (component index + 1, data length, data) entries followed by a 0.
+        FriendlyByteBuf buf = null;
         for (int i = 0; i < blockEntity.guiComponents.size(); ++i) {
+            if (syncCooldowns[i] > 0) {
+                syncCooldowns[i]--;
+                continue;
+            }
             GuiComponent.Server component = blockEntity.guiComponents.get(i);
             if (component.needsSync(trackedData.get(i))) {
-                FriendlyByteBuf buf = PacketByteBufs.create();
-                buf.writeInt(containerId);
-                buf.writeInt(i);
-                component.writeCurrentData(buf);
-                ServerPlayNetworking.send((ServerPlayer) playerInventory.player, MachinePackets.S2C.COMPONENT_SYNC, buf);
-                trackedData.set(i, component.copyData());
+                if (buf == null) {
+                    buf = PacketByteBufs.create();
+                    buf.writeInt(containerId);
+                }
+                buf.writeVarInt(i + 1);
+                int lengthIndex = buf.writerIndex();
+                buf.writeInt(0);
+                trackedData.set(i, component.writeCurrentData(buf, trackedData.get(i)));
+                buf.setInt(lengthIndex, buf.writerIndex() - lengthIndex - 4);
+                syncCooldowns[i] = component.getSyncInterval() - 1;
             }
         }
+        if (buf != null) {
+            buf.writeVarInt(0);
+            ServerPlayNetworking.send((ServerPlayer) playerInventory.player, MachinePackets.S2C.COMPONENT_SYNC, buf);
+        }
     }
 
     @Override
@@ -32,6 +32,10 @@ import net.minecraft.resources.ResourceLocation;
 
 public class CraftingMultiblockGui {
     public static class Server implements GuiComponent.Server<Data> {
+        /**
+         * The progress is displayed as a percentage with one decimal.
+         */
+        private static final int PROGRESS_STEPS = 1000;
 
         private final CrafterComponent crafter;
         private final Supplier<Boolean> isShapeValid;
@@ -43,11 +47,15 @@ public class CraftingMultiblockGui {
             this.progressSupplier = progressSupplier;
         }
 
+        private float getQuantizedProgress() {
+            return GuiComponent.quantize(progressSupplier.get(), PROGRESS_STEPS);
+        }
+
         @Override
         public Data copyData() {
             if (isShapeValid.get()) {
                 if (crafter.hasActiveRecipe()) {
-                    return new Data(progressSupplier.get(), crafter.getEfficiencyTicks(), crafter.getMaxEfficiencyTicks(),
+                    return new Data(getQuantizedProgress(), crafter.getEfficiencyTicks(), crafter.getMaxEfficiencyTicks(),
                             crafter.getCurrentRecipeEu(), crafter.getBaseRecipeEu());
                 } else {
                     return new Data(true);
@@ -65,7 +73,7 @@ public class CraftingMultiblockGui {
                 recipe = crafter.getCurrentRecipeEu() != cachedData.currentRecipeEu || crafter.getBaseRecipeEu() != cachedData.baseRecipeEu;
             }
             return cachedData.isShapeValid != isShapeValid.get() || cachedData.hasActiveRecipe != crafter.hasActiveRecipe()
-                    || cachedData.progress != progressSupplier.get() || crafter.getEfficiencyTicks() != cachedData.efficiencyTicks
+                    || cachedData.progress != getQuantizedProgress() || crafter.getEfficiencyTicks() != cachedData.efficiencyTicks
                     || crafter.getMaxEfficiencyTicks() != cachedData.maxEfficiencyTicks || recipe;
 
         }
@@ -81,7 +89,7 @@ public class CraftingMultiblockGui {
                 buf.writeBoolean(true);
                 if (crafter.hasActiveRecipe()) {
                     buf.writeBoolean(true);
-                    buf.writeFloat(progressSupplier.get());
+                    buf.writeFloat(getQuantizedProgress());
                     buf.writeInt(crafter.getEfficiencyTicks());
                     buf.writeInt(crafter.getMaxEfficiencyTicks());
                     buf.writeLong(crafter.getCurrentRecipeEu());
@@ -95,6 +103,11 @@ public class CraftingMultiblockGui {
 
         }
 
+        @Override
+        public int getSyncInterval() {
+            return GuiComponent.getBarSyncInterval();
+        }
+
         @Override
         public ResourceLocation getId() {
             return GuiComponents.CRAFTING_MULTIBLOCK_GUI;
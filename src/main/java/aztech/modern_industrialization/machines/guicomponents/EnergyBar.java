@@ -63,6 +63,11 @@ public class EnergyBar {
             buf.writeLong(maxEuSupplier.get());
         }
 
+        @Override
+        public int getSyncInterval() {
+            return GuiComponent.getBarSyncInterval();
+        }
+
         @Override
         public ResourceLocation getId() {
             return GuiComponents.ENERGY_BAR;
@@ -23,39 +23,48 @@
  */
 package aztech.modern_industrialization.machines.guicomponents;
 
-import static aztech.modern_industrialization.nuclear.NeutronType.*;
-
 import aztech.modern_industrialization.machines.GuiComponents;
 import aztech.modern_industrialization.machines.gui.GuiComponent;
 import aztech.modern_industrialization.nuclear.*;
 import java.util.Optional;
 import java.util.function.Supplier;
+import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.TransferVariant;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.Nullable;
 
+/**
+ * The grid is synced as quantized snapshots of the tiles: values are rounded
+ * below the precision displayed by the client, so that invisible changes don't
+ * trigger a sync. Syncs only contain the tiles that changed since the previous
+ * sync, except for a full sync every {@link #KEYFRAME_INTERVAL} syncs.
+ */
 public class NuclearReactorGui {
+    public static final int KEYFRAME_INTERVAL = 100;
 
-    public record Server(Supplier<Data> dataSupplier) implements GuiComponent.Server<Data> {
+    // Steps used to quantize the synced values, below the precision displayed by the client.
+    private static final double TEMPERATURE_STEP = 0.1;
+    private static final double NEUTRON_STEP = 0.01;
+    private static final double EU_STEP = 0.001;
+
+    /**
+     * @param syncsSinceKeyframe Number of delta syncs since the last full sync.
+     */
+    public record SyncedData(Data data, int syncsSinceKeyframe) {
+    }
+
+    public record Server(Supplier<Data> dataSupplier) implements GuiComponent.Server<SyncedData> {
 
         @Override
-        public Data copyData() {
-            return dataSupplier.get();
+        public SyncedData copyData() {
+            return new SyncedData(dataSupplier.get().quantize(), 0);
         }
 
         @Override
-        public boolean needsSync(Data cachedData) {
-            Data data = copyData();
-            if (data.valid != cachedData.valid || data.gridSizeX != cachedData.gridSizeX || data.gridSizeY != cachedData.gridSizeY
-                    || data.euProduction != cachedData.euProduction || data.euFuelConsumption != cachedData.euFuelConsumption) {
-                return true;
-            } else {
-                for (int i = 0; i < data.gridSizeY * data.gridSizeX; i++) {
-                    if (INuclearTileData.areEquals(data.tilesData[i], cachedData.tilesData[i])) {
-                        return true;
-                    }
-                }
-            }
-            return false;
+        public boolean needsSync(SyncedData cachedData) {
+            return !dataSupplier.get().quantize().sameAs(cachedData.data);
         }
 
         @Override
@@ -65,18 +74,15 @@ public class NuclearReactorGui {
 
         @Override
         public void writeCurrentData(FriendlyByteBuf buf) {
-            Data data = copyData();
-            buf.writeBoolean(data.valid);
-            if (data.valid) {
-                buf.writeInt(data.gridSizeX);
-                buf.writeInt(data.gridSizeY);
-                for (Optional<INuclearTileData> tiles : data.tilesData) {
-                    INuclearTileData.write(tiles, buf);
-                }
-                buf.writeDouble(data.euProduction);
-                buf.writeDouble(data.euFuelConsumption);
-            }
+            dataSupplier.get().quantize().write(buf, null);
+        }
 
+        @Override
+        public SyncedData writeCurrentData(FriendlyByteBuf buf, SyncedData cachedData) {
+            Data data = dataSupplier.get().quantize();
+            boolean keyframe = cachedData.syncsSinceKeyframe + 1 >= KEYFRAME_INTERVAL;
+            boolean delta = data.write(buf, keyframe ? null : cachedData.data);
+            return new SyncedData(data, delta ? cachedData.syncsSinceKeyframe + 1 : 0);
         }
 
         @Override
@@ -92,6 +98,10 @@ public class NuclearReactorGui {
         return Math.log(1 + 10 * neutronNumber) / Math.log(1 + 10 * neutronsMax);
     }
 
+    private static float quantize(double value, double step) {
+        return (float) (Math.round(value / step) * step);
+    }
+
     public record Data(boolean valid, int gridSizeX, int gridSizeY, Optional<INuclearTileData>[] tilesData,
             double euProduction,
             double euFuelConsumption) {
@@ -103,6 +113,301 @@ public class NuclearReactorGui {
         public static int toIndex(int x, int y, int sizeY) {
             return x * sizeY + y;
         }
+
+        /**
+         * Snapshot of the current values of the tiles, with quantized values.
+         */
+        public Data quantize() {
+            if (!valid) {
+                return this;
+            }
+            Optional<INuclearTileData>[] snapshots = new Optional[tilesData.length];
+            for (int i = 0; i < tilesData.length; ++i) {
+                snapshots[i] = tilesData[i].map(TileSnapshot::of);
+            }
+            return new Data(true, gridSizeX, gridSizeY, snapshots, NuclearReactorGui.quantize(euProduction, EU_STEP),
+                    NuclearReactorGui.quantize(euFuelConsumption, EU_STEP));
+        }
+
+        /**
+         * Compare two quantized snapshots.
+         */
+        public boolean sameAs(Data other) {
+            if (valid != other.valid) {
+                return false;
+            } else if (!valid) {
+                return true;
+            } else if (gridSizeX != other.gridSizeX || gridSizeY != other.gridSizeY || euProduction != other.euProduction
+                    || euFuelConsumption != other.euFuelConsumption) {
+                return false;
+            }
+            for (int i = 0; i < tilesData.length; ++i) {
+                if (!tilesData[i].equals(other.tilesData[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Write this quantized snapshot, as a delta from the snapshot that the client
+         * already has if possible.
+         *
+         * @return true if a delta was written, false for a full sync.
+         */
+        public boolean write(FriendlyByteBuf buf, @Nullable Data previous) {
+            buf.writeBoolean(valid);
+            if (!valid) {
+                return false;
+            }
+
+            boolean delta = previous != null && previous.valid && previous.gridSizeX == gridSizeX && previous.gridSizeY == gridSizeY;
+            buf.writeVarInt(gridSizeX);
+            buf.writeVarInt(gridSizeY);
+            buf.writeBoolean(delta);
+            if (delta) {
+                int changedTiles = 0;
+                for (int i = 0; i < tilesData.length; ++i) {
+                    if (!tilesData[i].equals(previous.tilesData[i])) {
+                        changedTiles++;
+                    }
+                }
+                buf.writeVarInt(changedTiles);
+                for (int i = 0; i < tilesData.length; ++i) {
+                    if (!tilesData[i].equals(previous.tilesData[i])) {
+                        buf.writeVarInt(i);
+                        TileSnapshot.write(buf, tilesData[i], previous.tilesData[i]);
+                    }
+                }
+            } else {
+                for (Optional<INuclearTileData> tile : tilesData) {
+                    TileSnapshot.write(buf, tile, Optional.empty());
+                }
+            }
+            buf.writeFloat((float) euProduction);
+            buf.writeFloat((float) euFuelConsumption);
+            return delta;
+        }
+
+        /**
+         * Read data written by {@link #write}, from the data that the client already
+         * has.
+         */
+        public static Data read(FriendlyByteBuf buf, @Nullable Data previous) {
+            if (!buf.readBoolean()) {
+                return new Data(false, 0, 0, null, 0, 0);
+            }
+
+            int sizeX = buf.readVarInt();
+            int sizeY = buf.readVarInt();
+            Optional<INuclearTileData>[] tilesData;
+            if (buf.readBoolean()) {
+                if (previous == null || !previous.valid) {
+                    throw new IllegalStateException("Received a nuclear reactor delta sync without previous data");
+                }
+                tilesData = previous.tilesData.clone();
+                int changedTiles = buf.readVarInt();
+                for (int i = 0; i < changedTiles; ++i) {
+                    int index = buf.readVarInt();
+                    tilesData[index] = TileSnapshot.read(buf, tilesData[index]);
+                }
+            } else {
+                tilesData = new Optional[sizeX * sizeY];
+                for (int i = 0; i < tilesData.length; ++i) {
+                    tilesData[i] = TileSnapshot.read(buf, Optional.empty());
+                }
+            }
+            double euProduction = buf.readFloat();
+            double euFuelConsumption = buf.readFloat();
+            return new Data(true, sizeX, sizeY, tilesData, euProduction, euFuelConsumption);
+        }
     }
 
+    /**
+     * Immutable copy of the displayed values of a tile. Neutron, EU and temperature
+     * values are quantized.
+     */
+    public record TileSnapshot(float temperature, float heatTransferCoeff, float meanFastNeutronAbsorption,
+            float meanThermalNeutronAbsorption, float meanFastNeutronFlux, float meanThermalNeutronFlux,
+            float meanNeutronGeneration, float meanEuGeneration, TransferVariant variant, long variantAmount,
+            boolean isFluid) implements INuclearTileData {
+
+        private static final int PRESENT = 1;
+        private static final int VALUES = 2;
+        private static final int CONTENTS = 4;
+
+        public static TileSnapshot of(INuclearTileData tile) {
+            if (tile instanceof TileSnapshot snapshot) {
+                return snapshot;
+            }
+            return new TileSnapshot(
+                    NuclearReactorGui.quantize(tile.getTemperature(), TEMPERATURE_STEP),
+                    (float) tile.getHeatTransferCoeff(),
+                    NuclearReactorGui.quantize(tile.getMeanNeutronAbsorption(NeutronType.FAST), NEUTRON_STEP),
+                    NuclearReactorGui.quantize(tile.getMeanNeutronAbsorption(NeutronType.THERMAL), NEUTRON_STEP),
+                    NuclearReactorGui.quantize(tile.getMeanNeutronFlux(NeutronType.FAST), NEUTRON_STEP),
+                    NuclearReactorGui.quantize(tile.getMeanNeutronFlux(NeutronType.THERMAL), NEUTRON_STEP),
+                    NuclearReactorGui.quantize(tile.getMeanNeutronGeneration(), NEUTRON_STEP),
+                    NuclearReactorGui.quantize(tile.getMeanEuGeneration(), EU_STEP),
+                    tile.getVariant(),
+                    tile.getVariantAmount(),
+                    tile.isFluid());
+        }
+
+        private boolean sameValues(TileSnapshot other) {
+            return temperature == other.temperature && heatTransferCoeff == other.heatTransferCoeff
+                    && meanFastNeutronAbsorption == other.meanFastNeutronAbsorption
+                    && meanThermalNeutronAbsorption == other.meanThermalNeutronAbsorption
+                    && meanFastNeutronFlux == other.meanFastNeutronFlux && meanThermalNeutronFlux == other.meanThermalNeutronFlux
+                    && meanNeutronGeneration == other.meanNeutronGeneration && meanEuGeneration == other.meanEuGeneration;
+        }
+
+        private boolean sameContents(TileSnapshot other) {
+            return isFluid == other.isFluid && variantAmount == other.variantAmount && variant.equals(other.variant);
+        }
+
+        /**
+         * Write a tile, only including the values and contents that differ from the
+         * previous tile.
+         */
+        private static void write(FriendlyByteBuf buf, Optional<INuclearTileData> maybeTile, Optional<INuclearTileData> maybePrevious) {
+            if (maybeTile.isEmpty()) {
+                buf.writeByte(0);
+                return;
+            }
+            TileSnapshot tile = (TileSnapshot) maybeTile.get();
+            @Nullable
+            TileSnapshot previous = (TileSnapshot) maybePrevious.orElse(null);
+
+            int flags = PRESENT;
+            if (previous == null || !tile.sameValues(previous)) {
+                flags |= VALUES;
+            }
+            if (previous == null || !tile.sameContents(previous)) {
+                flags |= CONTENTS;
+            }
+            buf.writeByte(flags);
+
+            if ((flags & VALUES) != 0) {
+                buf.writeFloat(tile.temperature);
+                buf.writeFloat(tile.heatTransferCoeff);
+                buf.writeFloat(tile.meanFastNeutronAbsorption);
+                buf.writeFloat(tile.meanThermalNeutronAbsorption);
+                buf.writeFloat(tile.meanFastNeutronFlux);
+                buf.writeFloat(tile.meanThermalNeutronFlux);
+                buf.writeFloat(tile.meanNeutronGeneration);
+                buf.writeFloat(tile.meanEuGeneration);
+            }
+            if ((flags & CONTENTS) != 0) {
+                buf.writeBoolean(!tile.isFluid);
+                buf.writeNbt(tile.variant.toNbt());
+                buf.writeVarLong(tile.variantAmount);
+            }
+        }
+
+        private static Optional<INuclearTileData> read(FriendlyByteBuf buf, Optional<INuclearTileData> maybePrevious) {
+            int flags = buf.readByte();
+            if ((flags & PRESENT) == 0) {
+                return Optional.empty();
+            }
+            @Nullable
+            TileSnapshot previous = (TileSnapshot) maybePrevious.orElse(null);
+            if (previous == null && (flags & (VALUES | CONTENTS)) != (VALUES | CONTENTS)) {
+                throw new IllegalStateException("Received a partial nuclear tile sync without previous data");
+            }
+
+            float temperature, heatTransferCoeff, meanFastNeutronAbsorption, meanThermalNeutronAbsorption;
+            float meanFastNeutronFlux, meanThermalNeutronFlux, meanNeutronGeneration, meanEuGeneration;
+            if ((flags & VALUES) != 0) {
+                temperature = buf.readFloat();
+                heatTransferCoeff = buf.readFloat();
+                meanFastNeutronAbsorption = buf.readFloat();
+                meanThermalNeutronAbsorption = buf.readFloat();
+                meanFastNeutronFlux = buf.readFloat();
+                meanThermalNeutronFlux = buf.readFloat();
+                meanNeutronGeneration = buf.readFloat();
+                meanEuGeneration = buf.readFloat();
+            } else {
+                temperature = previous.temperature;
+                heatTransferCoeff = previous.heatTransferCoeff;
+                meanFastNeutronAbsorption = previous.meanFastNeutronAbsorption;
+                meanThermalNeutronAbsorption = previous.meanThermalNeutronAbsorption;
+                meanFastNeutronFlux = previous.meanFastNeutronFlux;
+                meanThermalNeutronFlux = previous.meanThermalNeutronFlux;
+                meanNeutronGeneration = previous.meanNeutronGeneration;
+                meanEuGeneration = previous.meanEuGeneration;
+            }
+
+            TransferVariant variant;
+            long variantAmount;
+            boolean isFluid;
+            if ((flags & CONTENTS) != 0) {
+                isFluid = !buf.readBoolean();
+                variant = isFluid ? FluidVariant.fromNbt(buf.readNbt()) : ItemVariant.fromNbt(buf.readNbt());
+                variantAmount = buf.readVarLong();
+            } else {
+                variant = previous.variant;
+                variantAmount = previous.variantAmount;
+                isFluid = previous.isFluid;
+            }
+
+            return Optional.of(new TileSnapshot(temperature, heatTransferCoeff, meanFastNeutronAbsorption, meanThermalNeutronAbsorption,
+                    meanFastNeutronFlux, meanThermalNeutronFlux, meanNeutronGeneration, meanEuGeneration, variant, variantAmount, isFluid));
+        }
+
+        @Override
+        public double getTemperature() {
+            return temperature;
+        }
+
+        @Override
+        public double getHeatTransferCoeff() {
+            return heatTransferCoeff;
+        }
+
+        @Override
+        public double getMeanNeutronAbsorption(NeutronType type) {
+            if (type == NeutronType.FAST)
+                return meanFastNeutronAbsorption;
+            else if (type == NeutronType.THERMAL)
+                return meanThermalNeutronAbsorption;
+
+            return meanFastNeutronAbsorption + meanThermalNeutronAbsorption;
+        }
+
+        @Override
+        public double getMeanNeutronFlux(NeutronType type) {
+            if (type == NeutronType.FAST)
+                return meanFastNeutronFlux;
+            else if (type == NeutronType.THERMAL)
+                return meanThermalNeutronFlux;
+
+            return meanFastNeutronFlux + meanThermalNeutronFlux;
+        }
+
+        @Override
+        public double getMeanNeutronGeneration() {
+            return meanNeutronGeneration;
+        }
+
+        @Override
+        public double getMeanEuGeneration() {
+            return meanEuGeneration;
+        }
+
+        @Override
+        public TransferVariant getVariant() {
+            return variant;
+        }
+
+        @Override
+        public long getVariantAmount() {
+            return variantAmount;
+        }
+
+        @Override
+        public boolean isFluid() {
+            return isFluid;
+        }
+    }
 }
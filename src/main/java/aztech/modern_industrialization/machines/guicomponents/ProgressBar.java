@@ -33,6 +33,12 @@ import net.minecraft.resources.ResourceLocation;
 
 public class ProgressBar {
     public static class Server implements GuiComponent.Server<Float> {
+        /**
+         * The bar is only 20 pixels long, so there is no need to sync every small
+         * change in progress.
+         */
+        private static final int PROGRESS_STEPS = 100;
+
         private final Parameters params;
         private final Supplier<Float> progressSupplier;
 
@@ -41,14 +47,18 @@ public class ProgressBar {
             this.progressSupplier = progressSupplier;
         }
 
+        private float getQuantizedProgress() {
+            return GuiComponent.quantize(progressSupplier.get(), PROGRESS_STEPS);
+        }
+
         @Override
         public Float copyData() {
-            return progressSupplier.get();
+            return getQuantizedProgress();
         }
 
         @Override
         public boolean needsSync(Float cachedData) {
-            return !cachedData.equals(progressSupplier.get());
+            return cachedData != getQuantizedProgress();
         }
 
         @Override
@@ -62,7 +72,12 @@ public class ProgressBar {
 
         @Override
         public void writeCurrentData(FriendlyByteBuf buf) {
-            buf.writeFloat(progressSupplier.get());
+            buf.writeFloat(getQuantizedProgress());
+        }
+
+        @Override
+        public int getSyncInterval() {
+            return GuiComponent.getBarSyncInterval();
         }
 
         @Override
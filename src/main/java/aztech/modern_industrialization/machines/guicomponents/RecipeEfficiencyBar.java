@@ -81,6 +81,11 @@ public class RecipeEfficiencyBar {
             buf.writeLong(crafter.getBehavior().getMaxRecipeEu());
         }
 
+        @Override
+        public int getSyncInterval() {
+            return GuiComponent.getBarSyncInterval();
+        }
+
         @Override
         public ResourceLocation getId() {
             return GuiComponents.RECIPE_EFFICIENCY_BAR;
@@ -62,6 +62,11 @@ public class TemperatureBar {
             buf.writeInt(temperatureSupplier.get());
         }
 
+        @Override
+        public int getSyncInterval() {
+            return GuiComponent.getBarSyncInterval();
+        }
+
         @Override
         public ResourceLocation getId() {
             return GuiComponents.TEMPERATURE_BAR;
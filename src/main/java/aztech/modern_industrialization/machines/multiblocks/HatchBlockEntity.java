@@ -38,6 +38,7 @@ import aztech.modern_industrialization.util.Tickable;
 import java.util.List;
 import java.util.Objects;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.item.ItemStack;
 
@@ -45,23 +46,36 @@ public abstract class HatchBlockEntity extends MachineBlockEntity implements Tic
     public HatchBlockEntity(BEP bep, MachineGuiParameters guiParams, OrientationComponent.Params orientationParams) {
         super(bep, guiParams, orientationParams);
 
-        registerComponents(new IComponent.ClientOnly() {
-            @Override
-            public void writeClientNbt(CompoundTag tag) {
-                if (matchedCasing != null) {
-                    tag.putString("matchedCasing", matchedCasing);
-                }
-            }
+        registerComponents(matchedCasingComponent);
+    }
 
-            @Override
-            public void readClientNbt(CompoundTag tag) {
-                matchedCasing = tag.contains("matchedCasing") ? tag.getString("matchedCasing") : null;
+    private final IComponent matchedCasingComponent = new IComponent.ClientOnly() {
+        @Override
+        public void writeClientNbt(CompoundTag tag) {
+            if (matchedCasing != null) {
+                tag.putString("matchedCasing", matchedCasing);
             }
-        });
-    }
+        }
+
+        @Override
+        public void readClientNbt(CompoundTag tag) {
+            matchedCasing = tag.contains("matchedCasing") ? tag.getString("matchedCasing") : null;
+        }
+
+        @Override
+        public void writeClientDelta(FriendlyByteBuf buf) {
+            buf.writeNullable(matchedCasing, FriendlyByteBuf::writeUtf);
+        }
+
+        @Override
+        public void readClientDelta(FriendlyByteBuf buf) {
+            matchedCasing = buf.readNullable(FriendlyByteBuf::readUtf);
+        }
+    };
 
     private String lastSyncedMachineCasing = null;
     private String matchedCasing = null;
+    private long lastSavedInventoryVersion = -1;
 
     public abstract HatchType getHatchType();
 
@@ -84,10 +98,12 @@ public abstract class HatchBlockEntity extends MachineBlockEntity implements Tic
     public void unlink() {
         matchedCasing = null;
         clearMachineLock();
+        wakeUp();
     }
 
     public void link(MachineCasing casing) {
         matchedCasing = casing.name;
+        wakeUp();
     }
 
     protected void clearMachineLock() {
@@ -123,16 +139,33 @@ public abstract class HatchBlockEntity extends MachineBlockEntity implements Tic
 
         if (!Objects.equals(lastSyncedMachineCasing, matchedCasing)) {
             lastSyncedMachineCasing = matchedCasing;
-            sync();
+            syncComponent(matchedCasingComponent, true);
         }
 
         tickTransfer();
-        setChanged();
+
+        // The controller changes the hatch inventory without marking the hatch as changed.
+        long inventoryVersion = getInventory().getVersion();
+        if (inventoryVersion != lastSavedInventoryVersion) {
+            lastSavedInventoryVersion = inventoryVersion;
+            setChanged();
+        }
+
+        if (canSleep()) {
+            sleep();
+        }
     }
 
     protected void tickTransfer() {
     }
 
+    /**
+     * Return true if the hatch has nothing to do until its inventory, energy or casing changes.
+     */
+    protected boolean canSleep() {
+        return true;
+    }
+
     public void appendItemInputs(List<ConfigurableItemStack> list) {
     }
 
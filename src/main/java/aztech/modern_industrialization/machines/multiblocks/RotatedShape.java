@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.machines.multiblocks;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link ShapeTemplate} rotated towards one horizontal direction, with the
+ * members packed in flat arrays. Shared by all the matchers using the same
+ * template and direction, see {@link ShapeTemplate#getRotatedShape}.
+ */
+public final class RotatedShape {
+    /**
+     * Offsets from the controller, packed with {@link BlockPos#asLong}.
+     */
+    private final long[] offsets;
+    private final int[] memberIndices;
+    private final SimpleMember[] members;
+    /**
+     * Null where no hatch is allowed.
+     */
+    private final HatchFlags[] hatchFlags;
+    private final Long2IntOpenHashMap indexByOffset;
+
+    RotatedShape(ShapeTemplate template, Direction controllerDirection) {
+        int size = template.simpleMembers.size();
+        this.offsets = new long[size];
+        this.memberIndices = new int[size];
+        this.hatchFlags = new HatchFlags[size];
+        this.indexByOffset = new Long2IntOpenHashMap(size);
+        this.indexByOffset.defaultReturnValue(-1);
+
+        List<SimpleMember> memberList = new ArrayList<>();
+        int i = 0;
+        for (Map.Entry<BlockPos, SimpleMember> entry : template.simpleMembers.entrySet()) {
+            long offset = ShapeMatcher.toWorldPos(BlockPos.ZERO, controllerDirection, entry.getKey()).asLong();
+            int memberIndex = memberList.indexOf(entry.getValue());
+            if (memberIndex == -1) {
+                memberIndex = memberList.size();
+                memberList.add(entry.getValue());
+            }
+
+            offsets[i] = offset;
+            memberIndices[i] = memberIndex;
+            hatchFlags[i] = template.hatchFlags.get(entry.getKey());
+            indexByOffset.put(offset, i);
+            i++;
+        }
+        this.members = memberList.toArray(SimpleMember[]::new);
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Return the world position of the member at some index, packed with
+     * {@link BlockPos#asLong}.
+     */
+    public long getWorldPos(BlockPos controllerPos, int index) {
+        long offset = offsets[index];
+        return BlockPos.asLong(
+                controllerPos.getX() + BlockPos.getX(offset),
+                controllerPos.getY() + BlockPos.getY(offset),
+                controllerPos.getZ() + BlockPos.getZ(offset));
+    }
+
+    /**
+     * Return the index of the member at a world position, or -1 if the position is
+     * not part of the shape.
+     */
+    public int indexOf(BlockPos controllerPos, BlockPos worldPos) {
+        return indexOf(controllerPos, worldPos.getX(), worldPos.getY(), worldPos.getZ());
+    }
+
+    public int indexOf(BlockPos controllerPos, long worldPos) {
+        return indexOf(controllerPos, BlockPos.getX(worldPos), BlockPos.getY(worldPos), BlockPos.getZ(worldPos));
+    }
+
+    private int indexOf(BlockPos controllerPos, int x, int y, int z) {
+        return indexByOffset.get(BlockPos.asLong(x - controllerPos.getX(), y - controllerPos.getY(), z - controllerPos.getZ()));
+    }
+
+    public SimpleMember getMember(int index) {
+        return members[memberIndices[index]];
+    }
+
+    @Nullable
+    public HatchFlags getHatchFlags(int index) {
+        return hatchFlags[index];
+    }
+}
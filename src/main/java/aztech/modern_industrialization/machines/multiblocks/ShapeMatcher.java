@@ -27,13 +27,18 @@ import static net.minecraft.core.Direction.*;
 
 import aztech.modern_industrialization.machines.multiblocks.world.ChunkEventListener;
 import aztech.modern_industrialization.machines.multiblocks.world.ChunkEventListeners;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import java.util.*;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkStatus;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -43,17 +48,29 @@ public class ShapeMatcher implements ChunkEventListener {
     public ShapeMatcher(Level world, BlockPos controllerPos, Direction controllerDirection, ShapeTemplate template) {
         this.controllerPos = controllerPos;
         this.template = template;
-        this.simpleMembers = toWorldPos(controllerPos, controllerDirection, template.simpleMembers);
-        this.hatchFlags = toWorldPos(controllerPos, controllerDirection, template.hatchFlags);
+        this.shape = template.getRotatedShape(controllerDirection);
     }
 
     private final BlockPos controllerPos;
     private final ShapeTemplate template;
-    private final Map<BlockPos, SimpleMember> simpleMembers;
-    private final Map<BlockPos, HatchFlags> hatchFlags;
+    private final RotatedShape shape;
 
     private boolean needsRematch = true;
+    /**
+     * If false, only the positions in {@link #changedPositions} need to be
+     * checked again.
+     */
+    private boolean needsFullRematch = true;
+    private final LongSet changedPositions = new LongOpenHashSet();
+    /**
+     * Positions that didn't match during the last rematch.
+     */
+    private final LongSet mismatchedPositions = new LongOpenHashSet();
     private boolean matchSuccessful = false;
+    /**
+     * Packed positions of the chunks spanned by the shape, computed on first use.
+     */
+    private long @Nullable [] spannedChunks = null;
     private final List<HatchBlockEntity> matchedHatches = new ArrayList<>();
 
     /**
@@ -73,25 +90,26 @@ public class ShapeMatcher implements ChunkEventListener {
         return rotatedPos.offset(controllerPos);
     }
 
-    private static <V> Map<BlockPos, V> toWorldPos(BlockPos controllerPos, Direction controllerDirection, Map<BlockPos, V> templateMap) {
-        Map<BlockPos, V> result = new HashMap<>();
-        for (Map.Entry<BlockPos, V> entry : templateMap.entrySet()) {
-            result.put(toWorldPos(controllerPos, controllerDirection, entry.getKey()), entry.getValue());
-        }
-        return result;
-    }
-
     public Set<BlockPos> getPositions() {
-        return new HashSet<>(simpleMembers.keySet());
+        Set<BlockPos> positions = new HashSet<>();
+        for (int i = 0; i < shape.size(); ++i) {
+            positions.add(BlockPos.of(shape.getWorldPos(controllerPos, i)));
+        }
+        return positions;
     }
 
     public SimpleMember getSimpleMember(BlockPos pos) {
-        return Objects.requireNonNull(simpleMembers.get(pos));
+        int index = shape.indexOf(controllerPos, pos);
+        if (index < 0) {
+            throw new NullPointerException("Position " + pos + " is not part of the shape.");
+        }
+        return shape.getMember(index);
     }
 
     @Nullable
     public HatchFlags getHatchFlags(BlockPos pos) {
-        return hatchFlags.get(pos);
+        int index = shape.indexOf(controllerPos, pos);
+        return index < 0 ? null : shape.getHatchFlags(index);
     }
 
     public List<HatchBlockEntity> getMatchedHatches() {
@@ -106,6 +124,7 @@ public class ShapeMatcher implements ChunkEventListener {
         matchedHatches.clear();
         matchSuccessful = false;
         needsRematch = true;
+        needsFullRematch = true;
     }
 
     /**
@@ -113,20 +132,24 @@ public class ShapeMatcher implements ChunkEventListener {
      * it's not null.
      */
     public boolean matches(BlockPos pos, Level world, @Nullable List<HatchBlockEntity> hatches) {
-        SimpleMember simpleMember = simpleMembers.get(pos);
-        if (simpleMember == null)
+        int index = shape.indexOf(controllerPos, pos);
+        if (index < 0)
             return false;
 
+        return matches(index, pos, world, hatches);
+    }
+
+    private boolean matches(int index, BlockPos pos, Level world, @Nullable List<HatchBlockEntity> hatches) {
         BlockState state = world.getBlockState(pos);
-        if (simpleMember.matchesState(state))
+        if (shape.getMember(index).matchesState(state))
             return true;
 
         BlockEntity be = world.getBlockEntity(pos);
         if (be instanceof HatchBlockEntity hatch) {
-            HatchFlags flags = hatchFlags.get(pos);
+            HatchFlags flags = shape.getHatchFlags(index);
             if (flags != null && flags.allows(hatch.getHatchType()) && !hatch.isMatched()) {
-                if (matchedHatches != null) {
-                    matchedHatches.add(hatch);
+                if (hatches != null) {
+                    hatches.add(hatch);
                 }
                 return true;
             }
@@ -144,14 +167,52 @@ public class ShapeMatcher implements ChunkEventListener {
     }
 
     public void rematch(Level world) {
+        if (!areSpannedChunksLoaded(world)) {
+            // Matching now would load the missing chunks synchronously, or fail and retry
+            // every tick. Instead, fail the match and wait for onLoad to request a rematch.
+            unlinkHatches();
+            changedPositions.clear();
+            needsRematch = false;
+            return;
+        }
+
+        if (needsFullRematch || !canRematchIncrementally()) {
+            fullRematch(world);
+        } else {
+            incrementalRematch(world);
+        }
+
+        changedPositions.clear();
+        needsFullRematch = false;
+        needsRematch = false;
+    }
+
+    /**
+     * Changes to positions that accept hatches require a full rematch, because
+     * the matched hatches might change.
+     */
+    private boolean canRematchIncrementally() {
+        for (LongIterator it = changedPositions.iterator(); it.hasNext();) {
+            int index = shape.indexOf(controllerPos, it.nextLong());
+            if (index >= 0 && shape.getHatchFlags(index) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void fullRematch(Level world) {
         unlinkHatches();
         matchSuccessful = true;
+        mismatchedPositions.clear();
 
-        for (BlockPos pos : simpleMembers.keySet()) {
-            // TODO: check if the chunk is loaded
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (int i = 0; i < shape.size(); ++i) {
+            long worldPos = shape.getWorldPos(controllerPos, i);
 
-            if (!matches(pos, world, matchedHatches)) {
+            if (!matches(i, pos.set(worldPos), world, matchedHatches)) {
                 matchSuccessful = false;
+                mismatchedPositions.add(worldPos);
             }
         }
 
@@ -162,44 +223,101 @@ public class ShapeMatcher implements ChunkEventListener {
                 hatch.link(template.hatchCasing);
             }
         }
+    }
 
-        needsRematch = false;
+    /**
+     * Only check the changed positions, none of which can hold a hatch. The matched
+     * hatches stay linked if the shape is still valid.
+     */
+    private void incrementalRematch(Level world) {
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (LongIterator it = changedPositions.iterator(); it.hasNext();) {
+            long worldPos = it.nextLong();
+            if (matches(pos.set(worldPos), world, null)) {
+                mismatchedPositions.remove(worldPos);
+            } else {
+                mismatchedPositions.add(worldPos);
+            }
+        }
+
+        if (mismatchedPositions.isEmpty()) {
+            if (!matchSuccessful) {
+                // The hatches were released when the match failed, find them again.
+                fullRematch(world);
+            }
+        } else if (matchSuccessful) {
+            // Release the hatches, like a failed full rematch would.
+            for (HatchBlockEntity hatch : matchedHatches) {
+                hatch.unlink();
+            }
+            matchedHatches.clear();
+            matchSuccessful = false;
+        }
     }
 
-    public Set<ChunkPos> getSpannedChunks() {
-        Set<ChunkPos> spannedChunks = new HashSet<>();
-        for (BlockPos pos : simpleMembers.keySet()) {
-            spannedChunks.add(new ChunkPos(pos));
+    private long[] getPackedSpannedChunks() {
+        if (spannedChunks == null) {
+            LongSet chunks = new LongOpenHashSet();
+            for (int i = 0; i < shape.size(); ++i) {
+                long worldPos = shape.getWorldPos(controllerPos, i);
+                chunks.add(ChunkPos.asLong(SectionPos.blockToSectionCoord(BlockPos.getX(worldPos)),
+                        SectionPos.blockToSectionCoord(BlockPos.getZ(worldPos))));
+            }
+            spannedChunks = chunks.toLongArray();
         }
         return spannedChunks;
     }
 
-    public void registerListeners(Level world) {
-        for (ChunkPos chunkPos : getSpannedChunks()) {
-            ChunkEventListeners.listeners.add(world, chunkPos, this);
+    public Set<ChunkPos> getSpannedChunks() {
+        Set<ChunkPos> result = new HashSet<>();
+        for (long chunkPos : getPackedSpannedChunks()) {
+            result.add(new ChunkPos(chunkPos));
         }
+        return result;
     }
 
-    public void unregisterListeners(Level world) {
-        for (ChunkPos chunkPos : getSpannedChunks()) {
-            ChunkEventListeners.listeners.remove(world, chunkPos, this);
+    /**
+     * Check that all the spanned chunks are loaded at {@link ChunkStatus#FULL},
+     * without loading them.
+     */
+    public boolean areSpannedChunksLoaded(Level world) {
+        for (long chunkPos : getPackedSpannedChunks()) {
+            if (world.getChunkSource().getChunk(ChunkPos.getX(chunkPos), ChunkPos.getZ(chunkPos), ChunkStatus.FULL, false) == null) {
+                return false;
+            }
         }
+        return true;
+    }
+
+    public void registerListeners(Level world) {
+        ChunkEventListeners.register(world, this, getPositions());
+    }
+
+    public void unregisterListeners(Level world) {
+        ChunkEventListeners.unregister(world, this, getPositions());
     }
 
     @Override
     public void onBlockUpdate(BlockPos pos) {
-        if (simpleMembers.containsKey(pos)) {
+        if (shape.indexOf(controllerPos, pos) >= 0) {
             needsRematch = true;
+            changedPositions.add(pos.asLong());
         }
     }
 
     @Override
     public void onUnload() {
         needsRematch = true;
+        needsFullRematch = true;
     }
 
+    /**
+     * If the match was deferred because of a missing chunk, this requests a new
+     * attempt.
+     */
     @Override
     public void onLoad() {
         needsRematch = true;
+        needsFullRematch = true;
     }
 }
@@ -29,6 +29,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -38,11 +39,30 @@ public class ShapeTemplate {
     public final Map<BlockPos, SimpleMember> simpleMembers = new HashMap<>();
     public final Map<BlockPos, HatchFlags> hatchFlags = new HashMap<>();
     public final MachineCasing hatchCasing;
+    /**
+     * Lazily computed, indexed by {@link Direction#get2DDataValue}.
+     */
+    private final RotatedShape[] rotatedShapes = new RotatedShape[4];
 
     private ShapeTemplate(MachineCasing hatchCasing) {
         this.hatchCasing = hatchCasing;
     }
 
+    /**
+     * Return this shape rotated towards a horizontal direction. Must only be called
+     * once the template is built.
+     */
+    public RotatedShape getRotatedShape(Direction controllerDirection) {
+        int index = controllerDirection.get2DDataValue();
+        RotatedShape rotatedShape = rotatedShapes[index];
+        if (rotatedShape == null) {
+            // Racing threads might compute the same shape twice, which is harmless.
+            rotatedShape = new RotatedShape(this, controllerDirection);
+            rotatedShapes[index] = rotatedShape;
+        }
+        return rotatedShape;
+    }
+
     public static class Builder {
         private final ShapeTemplate template;
 
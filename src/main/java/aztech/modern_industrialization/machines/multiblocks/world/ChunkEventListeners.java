@@ -23,16 +23,24 @@
  */
 package aztech.modern_industrialization.machines.multiblocks.world;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
 
 public class ChunkEventListeners {
-    public static ChunkPosMultiMap<ChunkEventListener> listeners = new ChunkPosMultiMap<>();
+    private static Map<Level, Long2ObjectOpenHashMap<ListenedChunk>> listeners = new IdentityHashMap<>();
     private static MinecraftServer server = null;
 
     public static void init() {
@@ -42,37 +50,78 @@ public class ChunkEventListeners {
 
         ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> {
             ensureServerThread();
-            Set<ChunkEventListener> cels = listeners.get(world, chunk.getPos());
-            if (cels != null) {
-                for (ChunkEventListener cel : cels) {
+            ListenedChunk listenedChunk = getListenedChunk(world, chunk.getPos().toLong());
+            if (listenedChunk != null) {
+                for (ChunkEventListener cel : listenedChunk.listeners) {
                     cel.onLoad();
                 }
             }
         });
         ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> {
             ensureServerThread();
-            Set<ChunkEventListener> cels = listeners.get(world, chunk.getPos());
-            if (cels != null) {
-                for (ChunkEventListener cel : cels) {
+            ListenedChunk listenedChunk = getListenedChunk(world, chunk.getPos().toLong());
+            if (listenedChunk != null) {
+                for (ChunkEventListener cel : listenedChunk.listeners) {
                     cel.onUnload();
                 }
             }
         });
     }
 
+    /**
+     * Register a listener for the chunks containing the positions. The listener
+     * will receive block updates for these positions, and load and unload events
+     * for their chunks.
+     */
+    public static void register(Level world, ChunkEventListener listener, Iterable<BlockPos> positions) {
+        var chunks = listeners.computeIfAbsent(world, w -> new Long2ObjectOpenHashMap<>());
+        for (BlockPos pos : positions) {
+            chunks.computeIfAbsent(ChunkPos.asLong(pos), p -> new ListenedChunk()).addPosition(listener, pos);
+        }
+    }
+
+    /**
+     * Undo a previous call to {@link #register} with the same positions.
+     */
+    public static void unregister(Level world, ChunkEventListener listener, Iterable<BlockPos> positions) {
+        var chunks = listeners.get(world);
+        for (BlockPos pos : positions) {
+            long chunkPos = ChunkPos.asLong(pos);
+            // The world has no listener at all if nothing was registered in it.
+            ListenedChunk listenedChunk = chunks == null ? null : chunks.get(chunkPos);
+            if (listenedChunk == null) {
+                throw new RuntimeException("Could not remove listener at position " + pos + " as it does not exist.");
+            }
+            listenedChunk.removePosition(listener, pos);
+            if (listenedChunk.isEmpty()) {
+                chunks.remove(chunkPos);
+            }
+        }
+        if (chunks != null && chunks.isEmpty()) {
+            listeners.remove(world);
+        }
+    }
+
     public static void onBlockStateChange(Level world, ChunkPos chunkPos, BlockPos pos) {
         // We skip block state changes that happen outside of the server thread.
         // Hopefully that won't cause problems.
         if (server.isSameThread()) {
-            Set<ChunkEventListener> cels = listeners.get(world, chunkPos);
-            if (cels != null) {
-                for (ChunkEventListener cel : cels) {
+            ListenedChunk listenedChunk = getListenedChunk(world, chunkPos.toLong());
+            // Most block updates are filtered by the bitmap test without any allocation.
+            if (listenedChunk != null && listenedChunk.isListened(pos)) {
+                for (ChunkEventListener cel : listenedChunk.listeners) {
                     cel.onBlockUpdate(pos);
                 }
             }
         }
     }
 
+    @Nullable
+    private static ListenedChunk getListenedChunk(Level world, long chunkPos) {
+        var chunks = listeners.get(world);
+        return chunks == null ? null : chunks.get(chunkPos);
+    }
+
     private static void ensureServerThread() {
         if (!server.isSameThread()) {
             throw new RuntimeException("Thread is not server thread!");
@@ -81,7 +130,61 @@ public class ChunkEventListeners {
 
     private static void serverStopCleanup() {
         if (listeners.size() != 0) {
-            listeners = new ChunkPosMultiMap<>();
+            listeners = new IdentityHashMap<>();
+        }
+    }
+
+    /**
+     * The listeners of a chunk, and a bitmap per section of the positions that
+     * they care about.
+     */
+    private static class ListenedChunk {
+        // listener -> number of its positions in this chunk
+        private final Reference2IntOpenHashMap<ChunkEventListener> listenerCounts = new Reference2IntOpenHashMap<>();
+        private final Set<ChunkEventListener> listeners = listenerCounts.keySet();
+        private final Long2IntOpenHashMap positionCounts = new Long2IntOpenHashMap();
+        // section y -> 4096 bits, one per position in the section
+        private final Int2ObjectOpenHashMap<long[]> sectionBitmaps = new Int2ObjectOpenHashMap<>();
+
+        private static int bitIndex(BlockPos pos) {
+            return (pos.getY() & 15) << 8 | (pos.getZ() & 15) << 4 | (pos.getX() & 15);
+        }
+
+        boolean isListened(BlockPos pos) {
+            long[] bitmap = sectionBitmaps.get(SectionPos.blockToSectionCoord(pos.getY()));
+            if (bitmap == null) {
+                return false;
+            }
+            int bit = bitIndex(pos);
+            return (bitmap[bit >> 6] & (1L << bit)) != 0;
+        }
+
+        void addPosition(ChunkEventListener listener, BlockPos pos) {
+            listenerCounts.addTo(listener, 1);
+            if (positionCounts.addTo(pos.asLong(), 1) == 0) {
+                int bit = bitIndex(pos);
+                sectionBitmaps.computeIfAbsent(SectionPos.blockToSectionCoord(pos.getY()), y -> new long[64])[bit >> 6] |= 1L << bit;
+            }
+        }
+
+        void removePosition(ChunkEventListener listener, BlockPos pos) {
+            int listenerCount = listenerCounts.getInt(listener);
+            if (listenerCount == 0) {
+                throw new RuntimeException("Could not remove listener at position " + pos + " as it does not exist.");
+            } else if (listenerCount == 1) {
+                listenerCounts.removeInt(listener);
+            } else {
+                listenerCounts.put(listener, listenerCount - 1);
+            }
+            if (positionCounts.addTo(pos.asLong(), -1) == 1) {
+                positionCounts.remove(pos.asLong());
+                int bit = bitIndex(pos);
+                sectionBitmaps.get(SectionPos.blockToSectionCoord(pos.getY()))[bit >> 6] &= ~(1L << bit);
+            }
+        }
+
+        boolean isEmpty() {
+            return listenerCounts.isEmpty();
         }
     }
 }
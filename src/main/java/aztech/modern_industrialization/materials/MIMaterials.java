@@ -542,7 +542,7 @@ public class MIMaterials {
                         .set(MaterialProperty.SET, SHINY)
                         .set(MaterialProperty.MEAN_RGB, 0xe60045)
                         .set(MaterialProperty.HARDNESS, VERY_HARD)
-                        .set(MaterialProperty.ISOTOPE, new IsotopeFuelParams(0.6, 0.35, 2400, 900, 2300, 8, 0.5))
+                        .set(MaterialProperty.ISOTOPE, NuclearConstant.U235)
                         .addParts(BLOCK.of(MaterialBlockSet.GOLD)).addParts(ITEM_PURE_METAL)
                         .addRecipes(StandardRecipes::apply).addRecipes((ctx) -> SmeltingRecipes.applyBlastFurnace(ctx, 128)));
 
@@ -551,7 +551,7 @@ public class MIMaterials {
                         .set(MaterialProperty.SET, DULL)
                         .set(MaterialProperty.MEAN_RGB, 0x55bd33)
                         .set(MaterialProperty.HARDNESS, SOFT)
-                        .set(MaterialProperty.ISOTOPE, new IsotopeFuelParams(0.6, 0.30, 3200, 1000, 3000, 6, 0.3))
+                        .set(MaterialProperty.ISOTOPE, NuclearConstant.U238)
                         .addParts(BLOCK.of(MaterialBlockSet.GOLD)).addParts(ITEM_PURE_METAL)
                         .addRecipes(StandardRecipes::apply).addRecipes((ctx) -> SmeltingRecipes.applyBlastFurnace(ctx, 128)));
 
@@ -588,7 +588,7 @@ public class MIMaterials {
                 .set(MaterialProperty.SET, SHINY)
                 .set(MaterialProperty.MEAN_RGB, 0xd701e7)
                 .set(MaterialProperty.HARDNESS, VERY_HARD)
-                .set(MaterialProperty.ISOTOPE, new IsotopeFuelParams(0.9, 0.25, 2100, 600, 2000, 9, 0.25))
+                .set(MaterialProperty.ISOTOPE, NuclearConstant.PU239)
                 .addParts(BLOCK.of(MaterialBlockSet.GOLD))
                 .addParts(ITEM_PURE_METAL).addParts(BATTERY.of(CableTier.SUPERCONDUCTOR)).addRecipes(StandardRecipes::apply)
                 .addRecipes((ctx) -> SmeltingRecipes.applyBlastFurnace(ctx, 128)));
@@ -25,6 +25,7 @@ package aztech.modern_industrialization.nuclear;
 
 import aztech.modern_industrialization.machines.components.NuclearEfficiencyHistoryComponent;
 import java.util.Optional;
+import net.minecraft.util.RandomSource;
 
 public interface INuclearTile extends INuclearTileData {
 
@@ -39,12 +40,31 @@ public interface INuclearTile extends INuclearTileData {
         return Optional.empty();
     }
 
+    default boolean hasFuel() {
+        return getComponent() instanceof NuclearFuel;
+    }
+
+    /**
+     * Direct heat produced by the fuel of this tile, in EU per generated neutron,
+     * or 0 if the tile has no fuel.
+     */
+    default double getDirectEuPerNeutron() {
+        if (getComponent() instanceof NuclearFuel fuel) {
+            return fuel.directEUbyDesintegration / fuel.neutronMultiplicationFactor;
+        }
+        return 0;
+    }
+
     void absorbNeutrons(int neutronNumber, NeutronType type);
 
     void addNeutronsToFlux(int neutronNumber, NeutronType type);
 
-    int neutronGenerationTick(NuclearEfficiencyHistoryComponent efficiencyHistory);
+    /**
+     * @param random The random source of the grid, which must be used for all the
+     *               randomness of the tile to keep the simulation reproducible.
+     */
+    int neutronGenerationTick(NuclearEfficiencyHistoryComponent efficiencyHistory, RandomSource random);
 
-    void nuclearTick(NuclearEfficiencyHistoryComponent efficiencyHistory);
+    void nuclearTick(NuclearEfficiencyHistoryComponent efficiencyHistory, RandomSource random);
 
 }
@@ -0,0 +1,262 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.nuclear;
+
+import java.util.Arrays;
+
+/**
+ * Expected outcome of the random walk of one fast neutron emitted by each tile
+ * of a grid: flux, absorption and heat in every tile, and neutron fates. This
+ * is the average of what {@link NuclearGridHelper} computes with random walks.
+ * Rows are computed on first use, and discarded when the neutron behaviour of
+ * any tile changes.
+ */
+final class NeutronTransportMatrix {
+    static final int FAST_FLUX = 0;
+    static final int THERMAL_FLUX = 1;
+    static final int FAST_ABSORBED = 2;
+    static final int THERMAL_ABSORBED = 3;
+    static final int HEAT = 4;
+    private static final int QUANTITIES = 5;
+    private static final int FATES = NeutronFate.values().length;
+
+    /**
+     * Stop following neutrons once less than this fraction is still moving.
+     */
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_STEPS = 100_000;
+
+    private final NuclearGridWorkspace ws;
+    private final int tileCount;
+
+    // Neutron behaviour used to compute the rows.
+    private final boolean[] hasComponent;
+    private final boolean[] hasFuel;
+    private final double[][] interactionProbability = new double[2][];
+    private final double[][] absorptionProbability = new double[2][];
+    private final double[] slowingProbability;
+
+    /**
+     * Indexed by source tile, then by {@code quantity * tileCount + tile}.
+     */
+    private final double[][] rows;
+    /**
+     * Indexed by source tile, then by {@code type * FATES + fate}.
+     */
+    private final double[][] fates;
+
+    /**
+     * Expected values added by {@link #addSource} and not sent yet, indexed like
+     * the rows and the fates. Only whole neutrons are sent to the tiles, the rest
+     * is kept for the next ticks.
+     */
+    private final double[] pending;
+    private final double[] pendingFates = new double[2 * FATES];
+
+    // Moving neutrons, indexed by (type * 4 + direction) * cells + cell.
+    private final double[] mass;
+    private final double[] nextMass;
+
+    NeutronTransportMatrix(NuclearGridWorkspace ws) {
+        this.ws = ws;
+        this.tileCount = ws.tileCells.length;
+        int cells = ws.tiles.length;
+
+        this.hasComponent = new boolean[cells];
+        this.hasFuel = new boolean[cells];
+        this.slowingProbability = new double[cells];
+        for (int type = 0; type < 2; ++type) {
+            interactionProbability[type] = new double[cells];
+            absorptionProbability[type] = new double[cells];
+        }
+
+        this.rows = new double[tileCount][];
+        this.fates = new double[tileCount][];
+        this.pending = new double[QUANTITIES * tileCount];
+        this.mass = new double[8 * cells];
+        this.nextMass = new double[8 * cells];
+    }
+
+    /**
+     * Discard the rows if the neutron behaviour of a tile changed since they were
+     * computed.
+     */
+    void updateLayout() {
+        if (!Arrays.equals(hasComponent, ws.hasComponent) || !Arrays.equals(hasFuel, ws.hasFuel)
+                || !Arrays.equals(slowingProbability, ws.slowingProbability)
+                || !Arrays.equals(interactionProbability[0], ws.interactionProbability[0])
+                || !Arrays.equals(interactionProbability[1], ws.interactionProbability[1])
+                || !Arrays.equals(absorptionProbability[0], ws.absorptionProbability[0])
+                || !Arrays.equals(absorptionProbability[1], ws.absorptionProbability[1])) {
+            System.arraycopy(ws.hasComponent, 0, hasComponent, 0, hasComponent.length);
+            System.arraycopy(ws.hasFuel, 0, hasFuel, 0, hasFuel.length);
+            System.arraycopy(ws.slowingProbability, 0, slowingProbability, 0, slowingProbability.length);
+            for (int type = 0; type < 2; ++type) {
+                System.arraycopy(ws.interactionProbability[type], 0, interactionProbability[type], 0, interactionProbability[type].length);
+                System.arraycopy(ws.absorptionProbability[type], 0, absorptionProbability[type], 0, absorptionProbability[type].length);
+            }
+            Arrays.fill(rows, null);
+            Arrays.fill(fates, null);
+        }
+    }
+
+    /**
+     * Add the expected outcome of fast neutrons emitted by a tile.
+     */
+    void addSource(int sourceTile, int neutronNumber) {
+        if (rows[sourceTile] == null) {
+            compute(sourceTile);
+        }
+        double[] row = rows[sourceTile];
+        for (int i = 0; i < row.length; ++i) {
+            pending[i] += neutronNumber * row[i];
+        }
+        double[] fate = fates[sourceTile];
+        for (int i = 0; i < fate.length; ++i) {
+            pendingFates[i] += neutronNumber * fate[i];
+        }
+    }
+
+    /**
+     * Send the whole neutrons to the workspace and to the grid, and the heat to the
+     * tiles.
+     */
+    void flush(NuclearGrid grid) {
+        for (int tile = 0; tile < tileCount; ++tile) {
+            int cell = ws.tileCells[tile];
+            for (int type = 0; type < 2; ++type) {
+                ws.flux[type][cell] += takeWhole(pending, (FAST_FLUX + type) * tileCount + tile);
+                ws.absorbed[type][cell] += takeWhole(pending, (FAST_ABSORBED + type) * tileCount + tile);
+            }
+
+            double heat = pending[HEAT * tileCount + tile];
+            if (heat > 0) {
+                ws.putHeat(cell, heat);
+                pending[HEAT * tileCount + tile] = 0;
+            }
+        }
+
+        for (int type = 0; type < 2; ++type) {
+            for (NeutronFate fate : NeutronFate.values()) {
+                int neutronNumber = takeWhole(pendingFates, type * FATES + fate.ordinal());
+                if (neutronNumber > 0) {
+                    grid.registerNeutronFate(neutronNumber, type == 0 ? NeutronType.FAST : NeutronType.THERMAL, fate);
+                }
+            }
+        }
+    }
+
+    private static int takeWhole(double[] values, int index) {
+        int whole = (int) values[index];
+        values[index] -= whole;
+        return whole;
+    }
+
+    private void compute(int sourceTile) {
+        int cells = ws.tiles.length;
+        int[] tileCells = ws.tileCells;
+        double[] row = new double[QUANTITIES * tileCount];
+        double[] fate = new double[2 * FATES];
+
+        double[] current = mass;
+        double[] next = nextMass;
+        Arrays.fill(current, 0);
+        for (int dir = 0; dir < 4; ++dir) {
+            current[dir * cells + tileCells[sourceTile]] = 0.25;
+        }
+
+        double moving = 1;
+        for (int step = 0; step < MAX_STEPS && moving > EPSILON; ++step) {
+            Arrays.fill(next, 0);
+            moving = 0;
+
+            for (int type = 0; type < 2; ++type) {
+                for (int dir = 0; dir < 4; ++dir) {
+                    int base = (type * 4 + dir) * cells;
+
+                    for (int tile = 0; tile < tileCount; ++tile) {
+                        int cell = tileCells[tile];
+                        double m = current[base + cell];
+                        if (m == 0) {
+                            continue;
+                        }
+
+                        row[(FAST_FLUX + type) * tileCount + tile] += m;
+                        double straight = m;
+
+                        if (hasComponent[cell] && interactionProbability[type][cell] > 0) {
+                            double interacting = m * interactionProbability[type][cell];
+                            straight -= interacting;
+
+                            double absorbed = interacting * absorptionProbability[type][cell];
+                            row[(FAST_ABSORBED + type) * tileCount + tile] += absorbed;
+                            if (type == NeutronType.FAST.index) {
+                                row[HEAT * tileCount + tile] += absorbed * NuclearConstant.EU_FOR_FAST_NEUTRON;
+                            }
+                            NeutronFate absorbedFate = hasFuel[cell] ? NeutronFate.ABSORBED_IN_FUEL : NeutronFate.ABSORBED_NOT_IN_FUEL;
+                            fate[type * FATES + absorbedFate.ordinal()] += absorbed;
+
+                            double scattered = interacting - absorbed;
+                            double slowed = 0;
+                            if (type == NeutronType.FAST.index) {
+                                slowed = scattered * slowingProbability[cell];
+                                row[HEAT * tileCount + tile] += slowed * NuclearConstant.EU_FOR_FAST_NEUTRON;
+                            }
+                            for (int newDir = 0; newDir < 4; ++newDir) {
+                                moving += move(next, fate, type, newDir, cell, (scattered - slowed) / 4);
+                                if (slowed > 0) {
+                                    moving += move(next, fate, NeutronType.THERMAL.index, newDir, cell, slowed / 4);
+                                }
+                            }
+                        }
+
+                        moving += move(next, fate, type, dir, cell, straight);
+                    }
+                }
+            }
+
+            double[] swap = current;
+            current = next;
+            next = swap;
+        }
+
+        rows[sourceTile] = row;
+        fates[sourceTile] = fate;
+    }
+
+    /**
+     * Move neutrons to the next cell, and return the amount that is still in the
+     * grid.
+     */
+    private double move(double[] next, double[] fate, int type, int dir, int cell, double m) {
+        int nextCell = cell + ws.neighbourOffsets[dir];
+        if (ws.tiles[nextCell] == null) {
+            fate[type * FATES + NeutronFate.ESCAPE.ordinal()] += m;
+            return 0;
+        } else {
+            next[(type * 4 + dir) * ws.tiles.length + nextCell] += m;
+            return m;
+        }
+    }
+}
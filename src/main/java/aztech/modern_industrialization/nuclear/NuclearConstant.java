@@ -54,4 +54,8 @@ public class NuclearConstant {
     public static final IsotopeParams CARBON = new IsotopeParams(0.01, 0.005, 0.5, 0.85);
 
     public static final IsotopeParams INVAR = new IsotopeParams(0.002, 0.001, 0.2, 0.5);
+
+    public static final IsotopeFuelParams U235 = new IsotopeFuelParams(0.6, 0.35, 2400, 900, 2300, 8, 0.5);
+    public static final IsotopeFuelParams U238 = new IsotopeFuelParams(0.6, 0.30, 3200, 1000, 3000, 6, 0.3);
+    public static final IsotopeFuelParams PU239 = new IsotopeFuelParams(0.9, 0.25, 2100, 600, 2000, 9, 0.25);
 }
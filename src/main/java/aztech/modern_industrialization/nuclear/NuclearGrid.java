@@ -23,18 +23,40 @@
  */
 package aztech.modern_industrialization.nuclear;
 
-import aztech.modern_industrialization.machines.blockentities.hatches.NuclearHatch;
+import java.util.concurrent.ThreadLocalRandom;
+import net.minecraft.util.RandomSource;
 import org.jetbrains.annotations.Nullable;
 
 public final class NuclearGrid {
     private final int sizeX;
     private final int sizeY;
-    private final @Nullable NuclearHatch[][] hatchesGrid;
+    private final @Nullable INuclearTile[][] hatchesGrid;
+    final NuclearGridWorkspace workspace;
 
-    public NuclearGrid(int sizeX, int sizeY, @Nullable NuclearHatch[][] hatchesGrid) {
+    private static final int FATE_COUNT = NeutronFate.values().length;
+    private final long[] neutronFates = new long[2 * FATE_COUNT];
+    private final long[] neutronCreations = new long[2];
+
+    public NuclearGrid(int sizeX, int sizeY, @Nullable INuclearTile[][] hatchesGrid) {
+        this(sizeX, sizeY, hatchesGrid, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @param seed Seed of the random source used by the neutron transport.
+     */
+    public NuclearGrid(int sizeX, int sizeY, @Nullable INuclearTile[][] hatchesGrid, long seed) {
         this.sizeX = sizeX;
         this.sizeY = sizeY;
         this.hatchesGrid = hatchesGrid;
+        this.workspace = new NuclearGridWorkspace(sizeX, sizeY, hatchesGrid, seed);
+    }
+
+    /**
+     * The random source used by the simulation of this grid, including the tiles.
+     * Reseed it to make the next ticks reproducible.
+     */
+    public RandomSource getRandom() {
+        return workspace.random;
     }
 
     public int getSizeX() {
@@ -51,9 +73,25 @@ public final class NuclearGrid {
         return hatchesGrid[x][y];
     }
 
-    public void registerNeutronFate(int neutronNumber, NeutronType type, NeutronFate escape) {
+    public void registerNeutronFate(int neutronNumber, NeutronType type, NeutronFate fate) {
+        neutronFates[type.index * FATE_COUNT + fate.ordinal()] += neutronNumber;
     }
 
     public void registerNeutronCreation(int neutronNumber, NeutronType type) {
+        neutronCreations[type.index] += neutronNumber;
+    }
+
+    /**
+     * Total number of neutrons of a type (fast or thermal) that met some fate.
+     */
+    public long getNeutronFateCount(NeutronType type, NeutronFate fate) {
+        return neutronFates[type.index * FATE_COUNT + fate.ordinal()];
+    }
+
+    /**
+     * Total number of neutrons of a type (fast or thermal) that were created.
+     */
+    public long getNeutronCreationCount(NeutronType type) {
+        return neutronCreations[type.index];
     }
 }
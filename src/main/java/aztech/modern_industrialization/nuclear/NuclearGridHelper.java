@@ -25,212 +25,288 @@ package aztech.modern_industrialization.nuclear;
 
 import static aztech.modern_industrialization.nuclear.NeutronFate.*;
 
+import aztech.modern_industrialization.MIConfig;
 import aztech.modern_industrialization.machines.components.NuclearEfficiencyHistoryComponent;
-import java.util.Optional;
-import java.util.Random;
-import org.jetbrains.annotations.Nullable;
 
 public class NuclearGridHelper {
 
-    private static final int[] dX = { 1, 0, -1, 0 };
-    private static final int[] dY = { 0, 1, 0, -1 };
-
-    private static final Random rand = new Random();
-
     private static final int MAX_SPLIT = 30;
 
+    private static final int NUMERICAL_SUBSTEP = 10;
+
     public static boolean simulate(NuclearGrid grid, NuclearEfficiencyHistoryComponent efficiencyHistory) {
+        return simulate(grid, efficiencyHistory, MIConfig.getConfig().expectedValueNeutronTransport);
+    }
 
-        int sizeX = grid.getSizeX();
-        int sizeY = grid.getSizeY();
+    /**
+     * @param expectedValueTransport If true, use the expected outcome of the
+     *                               neutron random walks, which is deterministic
+     *                               and cheaper for large reactors. If false, use
+     *                               random walks.
+     */
+    public static boolean simulate(NuclearGrid grid, NuclearEfficiencyHistoryComponent efficiencyHistory, boolean expectedValueTransport) {
+        NuclearGridWorkspace ws = grid.workspace;
+        ws.deferHeat = false;
 
-        boolean hasFuel = false;
+        boolean hasFuel = generateNeutrons(grid, ws, efficiencyHistory, !expectedValueTransport);
+
+        if (expectedValueTransport) {
+            transportExpectedNeutrons(grid, ws);
+        }
 
-        for (int i = 0; i < sizeX; i++) {
-            for (int j = 0; j < sizeY; j++) {
+        ws.flushNeutrons();
 
-                final int x = i;
-                final int y = j;
+        ws.loadTemperatures();
+        simulateHeat(ws);
+        ws.storeTemperatures();
 
-                @Nullable
-                INuclearTile tile = grid.getNuclearTile(i, j);
-                if (tile == null) {
-                    continue;
-                }
+        nuclearTick(ws, efficiencyHistory);
 
-                // Get fuel before the generation tick, because the fuel might be consumed!
-                Optional<NuclearFuel> maybeFuel = tile.getFuel();
-                int neutronNumberPrime = tile.neutronGenerationTick(efficiencyHistory);
-                if (neutronNumberPrime == 0) {
-                    continue;
+        return hasFuel;
+    }
+
+    /**
+     * First part of a simulation split in three parts, that must run on the server
+     * thread. Generates the neutrons and copies the state of the tiles to the
+     * workspace of the grid.
+     *
+     * @return True if the grid has fuel, like {@link #simulate}.
+     */
+    public static boolean prepareSimulation(NuclearGrid grid, NuclearEfficiencyHistoryComponent efficiencyHistory) {
+        NuclearGridWorkspace ws = grid.workspace;
+        ws.deferHeat = true;
+
+        boolean hasFuel = generateNeutrons(grid, ws, efficiencyHistory, false);
+        ws.loadTemperatures();
+        return hasFuel;
+    }
+
+    /**
+     * Second part of a split simulation, that can run on any thread because it
+     * doesn't access the tiles: neutron transport and heat simulation.
+     */
+    public static void runSimulation(NuclearGrid grid, boolean expectedValueTransport) {
+        NuclearGridWorkspace ws = grid.workspace;
+
+        if (expectedValueTransport) {
+            transportExpectedNeutrons(grid, ws);
+        } else {
+            for (int t = 0; t < ws.tileCells.length; t++) {
+                if (ws.sourceNeutrons[t] > 0) {
+                    transportNeutrons(grid, ws, ws.tileCells[t], ws.sourceNeutrons[t]);
+                    ws.sourceNeutrons[t] = 0;
                 }
+            }
+        }
+
+        ws.applyPendingHeat();
+        simulateHeat(ws);
+    }
+
+    /**
+     * Last part of a split simulation, that must run on the server thread. Applies
+     * the results to the tiles.
+     */
+    public static void commitSimulation(NuclearGrid grid, NuclearEfficiencyHistoryComponent efficiencyHistory) {
+        NuclearGridWorkspace ws = grid.workspace;
+
+        ws.flushNeutrons();
+        ws.flushPendingHeat();
+        ws.storeTemperatures();
+
+        nuclearTick(ws, efficiencyHistory);
+    }
 
-                hasFuel = true;
-                NuclearFuel fuel = maybeFuel.orElseThrow(() -> new IllegalStateException("Neutron generated without fuel"));
+    /**
+     * Run the neutron generation of every tile. The neutrons are either transported
+     * immediately, or stored in {@link NuclearGridWorkspace#sourceNeutrons}.
+     */
+    private static boolean generateNeutrons(NuclearGrid grid, NuclearGridWorkspace ws, NuclearEfficiencyHistoryComponent efficiencyHistory,
+            boolean transportNow) {
+        ws.loadComponents();
 
-                tile.putHeat(neutronNumberPrime * fuel.directEUbyDesintegration / fuel.neutronMultiplicationFactor);
+        boolean hasFuel = false;
 
-                int split = Math.min(neutronNumberPrime, MAX_SPLIT);
-                int neutronNumberPerSplit = neutronNumberPrime / split;
+        for (int t = 0; t < ws.tileCells.length; t++) {
+            int cell = ws.tileCells[t];
+            INuclearTile tile = ws.tiles[cell];
+
+            // Get fuel before the generation tick, because the fuel might be consumed!
+            boolean tileHasFuel = ws.hasFuel[cell];
+            double directEuPerNeutron = tile.getDirectEuPerNeutron();
+            int neutronNumberPrime = tile.neutronGenerationTick(efficiencyHistory, ws.random);
+            ws.loadComponent(cell);
+            if (neutronNumberPrime == 0) {
+                continue;
+            }
 
-                for (int k = 0; k < split + 1; k++) {
+            hasFuel = true;
+            if (!tileHasFuel) {
+                throw new IllegalStateException("Neutron generated without fuel");
+            }
 
-                    int neutronNumber = (k < split) ? neutronNumberPerSplit : neutronNumberPrime % split;
+            tile.putHeat(neutronNumberPrime * directEuPerNeutron);
 
-                    if (neutronNumber > 0) {
-                        NeutronType type = NeutronType.FAST;
-                        grid.registerNeutronCreation(neutronNumber, type);
+            if (transportNow) {
+                transportNeutrons(grid, ws, cell, neutronNumberPrime);
+            } else {
+                ws.sourceNeutrons[t] = neutronNumberPrime;
+            }
+        }
+
+        return hasFuel;
+    }
 
-                        int dir = rand.nextInt(4);
-                        int posX = x;
-                        int posY = y;
+    private static void nuclearTick(NuclearGridWorkspace ws, NuclearEfficiencyHistoryComponent efficiencyHistory) {
+        for (int cell : ws.tileCells) {
+            ws.tiles[cell].nuclearTick(efficiencyHistory, ws.random);
+        }
+    }
 
-                        // Loop until we exit the grid
-                        while (true) {
-                            @Nullable
-                            INuclearTile secondTile = grid.getNuclearTile(posX, posY);
+    /**
+     * Split the neutrons generated by a tile in packets, and transport them.
+     */
+    private static void transportNeutrons(NuclearGrid grid, NuclearGridWorkspace ws, int startCell, int neutronNumberPrime) {
+        int split = Math.min(neutronNumberPrime, MAX_SPLIT);
+        int neutronNumberPerSplit = neutronNumberPrime / split;
 
-                            if (secondTile == null) {
-                                grid.registerNeutronFate(neutronNumber, type, ESCAPE);
-                                break;
-                            }
+        for (int k = 0; k < split + 1; k++) {
 
-                            secondTile.addNeutronsToFlux(neutronNumber, type);
+            int neutronNumber = (k < split) ? neutronNumberPerSplit : neutronNumberPrime % split;
 
-                            @Nullable
-                            INuclearComponent<?> component = secondTile.getComponent();
-                            if (component != null) {
-                                double interactionProba = component.getNeutronBehaviour().interactionTotalProbability(type);
+            if (neutronNumber > 0) {
+                transportPacket(grid, ws, startCell, neutronNumber);
+            }
+        }
+    }
 
-                                if (rand.nextDouble() < interactionProba) {
+    /**
+     * Random walk of a packet of fast neutrons starting at some cell, until it is
+     * absorbed or exits the grid.
+     */
+    private static void transportPacket(NuclearGrid grid, NuclearGridWorkspace ws, int startCell, int neutronNumber) {
+        NeutronType type = NeutronType.FAST;
+        grid.registerNeutronCreation(neutronNumber, type);
+
+        int dir = ws.random.nextInt(4);
+        int cell = startCell;
+
+        // Loop until we exit the grid
+        while (true) {
+            if (ws.tiles[cell] == null) {
+                grid.registerNeutronFate(neutronNumber, type, ESCAPE);
+                return;
+            }
 
-                                    double interactionSelector = rand.nextDouble();
+            ws.flux[type.index][cell] += neutronNumber;
 
-                                    double probaAbsorption = component.getNeutronBehaviour().interactionRelativeProbability(type,
-                                            NeutronInteraction.ABSORPTION);
+            if (ws.hasComponent[cell]) {
+                if (ws.random.nextDouble() < ws.interactionProbability[type.index][cell]) {
 
-                                    if (interactionSelector <= probaAbsorption) {
-                                        secondTile.absorbNeutrons(neutronNumber, type);
+                    double interactionSelector = ws.random.nextDouble();
 
-                                        if (type == NeutronType.FAST) {
-                                            secondTile.putHeat(neutronNumber * NuclearConstant.EU_FOR_FAST_NEUTRON);
-                                        }
+                    if (interactionSelector <= ws.absorptionProbability[type.index][cell]) {
+                        ws.absorbed[type.index][cell] += neutronNumber;
 
-                                        if (secondTile.getFuel().isPresent()) {
-                                            grid.registerNeutronFate(neutronNumber, type, ABSORBED_IN_FUEL);
-                                        } else {
-                                            grid.registerNeutronFate(neutronNumber, type, ABSORBED_NOT_IN_FUEL);
-                                        }
+                        if (type == NeutronType.FAST) {
+                            ws.putHeat(cell, neutronNumber * NuclearConstant.EU_FOR_FAST_NEUTRON);
+                        }
 
-                                        break;
-                                    } else {
-                                        dir = rand.nextInt(4);
+                        if (ws.hasFuel[cell]) {
+                            grid.registerNeutronFate(neutronNumber, type, ABSORBED_IN_FUEL);
+                        } else {
+                            grid.registerNeutronFate(neutronNumber, type, ABSORBED_NOT_IN_FUEL);
+                        }
 
-                                        if (type == NeutronType.FAST
-                                                && rand.nextDouble() < component.getNeutronBehaviour().neutronSlowingProbability()) {
-                                            type = NeutronType.THERMAL;
-                                            secondTile.putHeat(neutronNumber * NuclearConstant.EU_FOR_FAST_NEUTRON);
-                                        }
-                                    }
-                                }
-                            }
+                        return;
+                    } else {
+                        dir = ws.random.nextInt(4);
 
-                            posX += dX[dir];
-                            posY += dY[dir];
+                        if (type == NeutronType.FAST && ws.random.nextDouble() < ws.slowingProbability[cell]) {
+                            type = NeutronType.THERMAL;
+                            ws.putHeat(cell, neutronNumber * NuclearConstant.EU_FOR_FAST_NEUTRON);
                         }
                     }
                 }
             }
+
+            cell += ws.neighbourOffsets[dir];
         }
+    }
 
-        // HEAT
+    private static void transportExpectedNeutrons(NuclearGrid grid, NuclearGridWorkspace ws) {
+        NeutronTransportMatrix matrix = ws.getTransportMatrix();
+        matrix.updateLayout();
 
-        // Cache heat transfer coefficients
-        double heatTransferCoeff[][] = new double[grid.getSizeX()][grid.getSizeY()];
-        for (int i = 0; i < sizeX; ++i) {
-            for (int j = 0; j < sizeY; ++j) {
-                @Nullable
-                INuclearTile tile = grid.getNuclearTile(i, j);
-                if (tile != null) {
-                    heatTransferCoeff[i][j] = tile.getHeatTransferCoeff();
-                }
+        for (int t = 0; t < ws.sourceNeutrons.length; t++) {
+            int neutronNumber = ws.sourceNeutrons[t];
+            if (neutronNumber > 0) {
+                grid.registerNeutronCreation(neutronNumber, NeutronType.FAST);
+                matrix.addSource(t, neutronNumber);
+                ws.sourceNeutrons[t] = 0;
             }
         }
 
-        final int NUMERICAL_SUBSTEP = 10;
+        matrix.flush(grid);
+    }
+
+    private static void simulateHeat(NuclearGridWorkspace ws) {
+        double[] temperature = ws.temperature;
+        double[] heatTransferCoeff = ws.heatTransferCoeff;
+        double[] temperatureOut = ws.temperatureOut;
+        double[] temperatureDelta = ws.temperatureDelta;
 
         for (int substep = 0; substep < NUMERICAL_SUBSTEP; substep++) {
-            double[][] temperatureOut = new double[sizeX][sizeY];
-            double[][] temperatureDelta = new double[sizeX][sizeY];
-
-            for (int step = 0; step < 3; step++) {
-                // step 0: compute temperatureOut = dT * coeff
-                // step 1: compute temperatureDelta, clamping as necessary
-                // step 2: set temperature
-                for (int i = 0; i < sizeX; i++) {
-                    for (int j = 0; j < sizeY; j++) {
-                        @Nullable
-                        INuclearTile tile = grid.getNuclearTile(i, j);
-                        if (tile == null) {
-                            continue;
-                        }
+            ws.clearHeatBuffers();
 
-                        double temperatureA = tile.getTemperature();
-                        if (step == 2) {
-                            tile.setTemperature(temperatureA + temperatureDelta[i][j]);
-                        } else {
-                            double coeffA = heatTransferCoeff[i][j];
-
-                            if (step == 1) {
-                                // clamp to avoid reaching < 0 temperatures
-                                temperatureDelta[i][j] -= Math.min(temperatureA, temperatureOut[i][j]);
-                            }
-                            for (int k = 0; k < 4; k++) {
-                                int i2 = i + dX[k];
-                                int j2 = j + dY[k];
-
-                                @Nullable
-                                INuclearTile secondTile = grid.getNuclearTile(i2, j2);
-
-                                if (secondTile != null) {
-                                    double temperatureB = secondTile.getTemperature();
-                                    double coeffB = heatTransferCoeff[i2][j2];
-                                    double coeffTransfer = 0.5 * (coeffA + coeffB) / NUMERICAL_SUBSTEP;
-                                    if (temperatureA > temperatureB) {
-                                        if (step == 0) {
-                                            temperatureOut[i][j] += (temperatureA - temperatureB) * coeffTransfer;
-                                        } else {
-                                            double frac = Math.min(1, temperatureA / temperatureOut[i][j]);
-                                            temperatureDelta[i2][j2] += frac * (temperatureA - temperatureB) * coeffTransfer;
-                                        }
-                                    }
-                                } else {
-                                    double temperatureB = 0;
-                                    double coeffTransfer = 0.5 * coeffA / NUMERICAL_SUBSTEP;
-                                    if (step == 0) {
-                                        temperatureOut[i][j] += (temperatureA - temperatureB) * coeffTransfer;
-                                    }
-                                }
-                            }
+            // step 0: compute temperatureOut = dT * coeff
+            for (int cell : ws.tileCells) {
+                double temperatureA = temperature[cell];
+                double coeffA = heatTransferCoeff[cell];
+
+                for (int k = 0; k < 4; k++) {
+                    int cell2 = cell + ws.neighbourOffsets[k];
+
+                    if (ws.tiles[cell2] != null) {
+                        double temperatureB = temperature[cell2];
+                        if (temperatureA > temperatureB) {
+                            double coeffTransfer = 0.5 * (coeffA + heatTransferCoeff[cell2]) / NUMERICAL_SUBSTEP;
+                            temperatureOut[cell] += (temperatureA - temperatureB) * coeffTransfer;
                         }
+                    } else {
+                        double coeffTransfer = 0.5 * coeffA / NUMERICAL_SUBSTEP;
+                        temperatureOut[cell] += temperatureA * coeffTransfer;
                     }
                 }
             }
-        }
 
-        for (int i = 0; i < sizeX; i++) {
-            for (int j = 0; j < sizeY; j++) {
-                @Nullable
-                INuclearTile maybeTile = grid.getNuclearTile(i, j);
+            // step 1: compute temperatureDelta, clamping as necessary
+            for (int cell : ws.tileCells) {
+                double temperatureA = temperature[cell];
+                double coeffA = heatTransferCoeff[cell];
+
+                // clamp to avoid reaching < 0 temperatures
+                temperatureDelta[cell] -= Math.min(temperatureA, temperatureOut[cell]);
+
+                for (int k = 0; k < 4; k++) {
+                    int cell2 = cell + ws.neighbourOffsets[k];
 
-                if (maybeTile != null) {
-                    maybeTile.nuclearTick(efficiencyHistory);
+                    if (ws.tiles[cell2] != null) {
+                        double temperatureB = temperature[cell2];
+                        if (temperatureA > temperatureB) {
+                            double coeffTransfer = 0.5 * (coeffA + heatTransferCoeff[cell2]) / NUMERICAL_SUBSTEP;
+                            double frac = Math.min(1, temperatureA / temperatureOut[cell]);
+                            temperatureDelta[cell2] += frac * (temperatureA - temperatureB) * coeffTransfer;
+                        }
+                    }
                 }
             }
-        }
-
-        return hasFuel;
 
+            // step 2: set temperature, with the same bounds as the hatches
+            for (int cell : ws.tileCells) {
+                temperature[cell] = Math.min(Math.max(temperature[cell] + temperatureDelta[cell], 0), NuclearConstant.MAX_TEMPERATURE);
+            }
+        }
     }
 
 }
@@ -0,0 +1,237 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.nuclear;
+
+import java.util.Arrays;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.levelgen.XoroshiroRandomSource;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Buffers for the simulation of one reactor, reused across ticks. Cells are
+ * stored in flat arrays with a border of empty cells around the grid, such that
+ * neighbours never need bounds checks and neutrons always escape through an
+ * empty cell.
+ *
+ * <p>
+ * Apart from the tile accesses, a workspace is only ever used by one thread at
+ * a time, and it owns the random source of the reactor, which makes the
+ * simulation reproducible from the seed.
+ */
+final class NuclearGridWorkspace {
+    final int sizeX;
+    final int sizeY;
+    /**
+     * Flat index offsets of the neighbours at +x, +y, -x and -y.
+     */
+    final int[] neighbourOffsets;
+    final @Nullable INuclearTile[] tiles;
+    /**
+     * Flat indices of the non-empty cells, in grid order.
+     */
+    final int[] tileCells;
+    final RandomSource random;
+
+    // Component data, refreshed every tick. Indexed by [neutron type][cell] when relevant.
+    final boolean[] hasComponent;
+    final boolean[] hasFuel;
+    final double[][] interactionProbability = new double[2][];
+    final double[][] absorptionProbability = new double[2][];
+    final double[] slowingProbability;
+
+    // Neutrons accumulated during the tick, and flushed to the tiles at the end.
+    final int[][] flux = new int[2][];
+    final int[][] absorbed = new int[2][];
+
+    /**
+     * Neutrons generated by each tile during the tick, indexed like
+     * {@link #tileCells}. Only used by the expected-value transport.
+     */
+    final int[] sourceNeutrons;
+    private @Nullable NeutronTransportMatrix transportMatrix = null;
+
+    /**
+     * If true, heat from neutrons is added to {@link #pendingHeat} instead of the
+     * tiles, so that the tiles are not accessed during the transport.
+     */
+    boolean deferHeat = false;
+    final double[] pendingHeat;
+
+    // Heat simulation
+    final double[] temperature;
+    final double[] heatTransferCoeff;
+    final double[] temperatureOut;
+    final double[] temperatureDelta;
+
+    NuclearGridWorkspace(int sizeX, int sizeY, @Nullable INuclearTile[][] grid, long seed) {
+        this.random = new XoroshiroRandomSource(seed);
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        int stride = sizeY + 2;
+        int cells = (sizeX + 2) * stride;
+        this.neighbourOffsets = new int[] { stride, 1, -stride, -1 };
+
+        this.tiles = new INuclearTile[cells];
+        int tileCount = 0;
+        for (int i = 0; i < sizeX; ++i) {
+            for (int j = 0; j < sizeY; ++j) {
+                if (grid[i][j] != null) {
+                    tiles[cell(i, j)] = grid[i][j];
+                    tileCount++;
+                }
+            }
+        }
+        this.tileCells = new int[tileCount];
+        int t = 0;
+        for (int cell = 0; cell < cells; ++cell) {
+            if (tiles[cell] != null) {
+                tileCells[t++] = cell;
+            }
+        }
+
+        this.hasComponent = new boolean[cells];
+        this.hasFuel = new boolean[cells];
+        this.slowingProbability = new double[cells];
+        for (int type = 0; type < 2; ++type) {
+            interactionProbability[type] = new double[cells];
+            absorptionProbability[type] = new double[cells];
+            flux[type] = new int[cells];
+            absorbed[type] = new int[cells];
+        }
+
+        this.sourceNeutrons = new int[tileCount];
+        this.pendingHeat = new double[cells];
+
+        this.temperature = new double[cells];
+        this.heatTransferCoeff = new double[cells];
+        this.temperatureOut = new double[cells];
+        this.temperatureDelta = new double[cells];
+    }
+
+    NeutronTransportMatrix getTransportMatrix() {
+        if (transportMatrix == null) {
+            transportMatrix = new NeutronTransportMatrix(this);
+        }
+        return transportMatrix;
+    }
+
+    int cell(int x, int y) {
+        return (x + 1) * (sizeY + 2) + (y + 1);
+    }
+
+    void loadComponents() {
+        for (int cell : tileCells) {
+            loadComponent(cell);
+        }
+    }
+
+    /**
+     * Copy the neutron behaviour of the component in a tile to the arrays.
+     */
+    void loadComponent(int cell) {
+        INuclearTile tile = tiles[cell];
+        @Nullable
+        INuclearComponent<?> component = tile.getComponent();
+        hasComponent[cell] = component != null;
+        hasFuel[cell] = tile.hasFuel();
+
+        if (component != null) {
+            INeutronBehaviour behaviour = component.getNeutronBehaviour();
+            interactionProbability[0][cell] = behaviour.interactionTotalProbability(NeutronType.FAST);
+            interactionProbability[1][cell] = behaviour.interactionTotalProbability(NeutronType.THERMAL);
+            absorptionProbability[0][cell] = behaviour.interactionRelativeProbability(NeutronType.FAST, NeutronInteraction.ABSORPTION);
+            absorptionProbability[1][cell] = behaviour.interactionRelativeProbability(NeutronType.THERMAL, NeutronInteraction.ABSORPTION);
+            slowingProbability[cell] = behaviour.neutronSlowingProbability();
+        }
+    }
+
+    /**
+     * Send the neutrons accumulated during the tick to the tiles, once per tile.
+     */
+    void flushNeutrons() {
+        for (int cell : tileCells) {
+            INuclearTile tile = tiles[cell];
+            for (int type = 0; type < 2; ++type) {
+                NeutronType neutronType = type == 0 ? NeutronType.FAST : NeutronType.THERMAL;
+                if (flux[type][cell] != 0) {
+                    tile.addNeutronsToFlux(flux[type][cell], neutronType);
+                    flux[type][cell] = 0;
+                }
+                if (absorbed[type][cell] != 0) {
+                    tile.absorbNeutrons(absorbed[type][cell], neutronType);
+                    absorbed[type][cell] = 0;
+                }
+            }
+        }
+    }
+
+    void putHeat(int cell, double eu) {
+        if (deferHeat) {
+            pendingHeat[cell] += eu;
+        } else {
+            tiles[cell].putHeat(eu);
+        }
+    }
+
+    /**
+     * Add the pending heat to the temperatures loaded in the arrays.
+     */
+    void applyPendingHeat() {
+        for (int cell : tileCells) {
+            double newTemperature = temperature[cell] + pendingHeat[cell] / NuclearConstant.EU_PER_DEGREE;
+            temperature[cell] = Math.min(newTemperature, NuclearConstant.MAX_TEMPERATURE);
+        }
+    }
+
+    /**
+     * Send the pending heat to the tiles, for their statistics. The temperatures
+     * are overwritten afterwards.
+     */
+    void flushPendingHeat() {
+        for (int cell : tileCells) {
+            if (pendingHeat[cell] > 0) {
+                tiles[cell].putHeat(pendingHeat[cell]);
+                pendingHeat[cell] = 0;
+            }
+        }
+    }
+
+    void loadTemperatures() {
+        for (int cell : tileCells) {
+            temperature[cell] = tiles[cell].getTemperature();
+            heatTransferCoeff[cell] = tiles[cell].getHeatTransferCoeff();
+        }
+    }
+
+    void storeTemperatures() {
+        for (int cell : tileCells) {
+            tiles[cell].setTemperature(temperature[cell]);
+        }
+    }
+
+    void clearHeatBuffers() {
+        Arrays.fill(temperatureOut, 0);
+        Arrays.fill(temperatureDelta, 0);
+    }
+}
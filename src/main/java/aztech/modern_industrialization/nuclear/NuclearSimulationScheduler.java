@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.nuclear;
+
+import aztech.modern_industrialization.MIConfig;
+import aztech.modern_industrialization.machines.components.NuclearEfficiencyHistoryComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.CrashReport;
+import net.minecraft.CrashReportCategory;
+import net.minecraft.ReportedException;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Runs the neutron transport and heat simulation of nuclear reactors on worker
+ * threads. A reactor is prepared on the server thread during its tick,
+ * simulated in parallel with the rest of the server tick, and the results are
+ * applied on the server thread at the end of the tick.
+ *
+ * <p>
+ * Each grid has its own random source and the results are applied in
+ * scheduling order, so the outcome doesn't depend on the thread scheduling.
+ */
+public class NuclearSimulationScheduler {
+    private static final List<PendingSimulation> pending = new ArrayList<>();
+    @Nullable
+    private static ExecutorService executor = null;
+
+    private record PendingSimulation(BlockEntity reactor, NuclearGrid grid, NuclearEfficiencyHistoryComponent efficiencyHistory,
+            CompletableFuture<Void> future) {
+    }
+
+    public static void init() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> commitAll());
+        // Apply the simulations of the last tick before the world is saved.
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> commitAll());
+        // Simulations can only be left if the server stopped in the middle of a tick. The world was already saved, so their
+        // results are dropped.
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> pending.clear());
+    }
+
+    public static boolean isEnabled() {
+        return MIConfig.getConfig().offThreadNuclearSimulation;
+    }
+
+    /**
+     * Start the simulation of one tick of a grid. Must be called on the server
+     * thread. The efficiency history is ticked once the results are applied at the
+     * end of the server tick, like after a synchronous simulation.
+     *
+     * @return True if the grid has fuel, like {@link NuclearGridHelper#simulate}.
+     */
+    public static boolean schedule(BlockEntity reactor, NuclearGrid grid, NuclearEfficiencyHistoryComponent efficiencyHistory) {
+        boolean hasFuel = NuclearGridHelper.prepareSimulation(grid, efficiencyHistory);
+        boolean expectedValueTransport = MIConfig.getConfig().expectedValueNeutronTransport;
+        var future = CompletableFuture.runAsync(() -> NuclearGridHelper.runSimulation(grid, expectedValueTransport), getExecutor());
+        pending.add(new PendingSimulation(reactor, grid, efficiencyHistory, future));
+        return hasFuel;
+    }
+
+    private static void commitAll() {
+        for (PendingSimulation simulation : pending) {
+            try {
+                simulation.future.join();
+            } catch (CompletionException exception) {
+                pending.clear();
+                CrashReport crashReport = CrashReport.forThrowable(exception.getCause(), "Simulating nuclear reactor");
+                CrashReportCategory category = crashReport.addCategory("Nuclear reactor being simulated");
+                simulation.reactor.fillCrashReportCategory(category);
+                throw new ReportedException(crashReport);
+            }
+            NuclearGridHelper.commitSimulation(simulation.grid, simulation.efficiencyHistory);
+            simulation.efficiencyHistory.tick();
+        }
+        pending.clear();
+    }
+
+    private static ExecutorService getExecutor() {
+        if (executor == null) {
+            int threads = Math.min(4, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+            AtomicInteger threadId = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "MI Nuclear Simulation #" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+}
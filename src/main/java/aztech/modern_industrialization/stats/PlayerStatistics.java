@@ -27,14 +27,22 @@ import aztech.modern_industrialization.compat.ftbquests.FTBQuestsFacade;
 import aztech.modern_industrialization.compat.ftbteams.FTBTeamsFacade;
 import aztech.modern_industrialization.proxy.CommonProxy;
 import com.google.common.primitives.Ints;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
 import it.unimi.dsi.fastutil.objects.Reference2LongMap;
 import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import java.util.ArrayList;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import net.minecraft.core.Registry;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.stats.Stats;
@@ -56,6 +64,7 @@ public class PlayerStatistics {
 
     // Items produced while the player was offline... this is used to award vanilla stats when the player comes back online.
     private final Reference2LongMap<Item> pendingCraftedStats = new Reference2LongOpenHashMap<>();
+    private boolean dirty = false;
 
     PlayerStatistics(PlayerStatisticsData data, UUID uuid) {
         this.data = data;
@@ -64,28 +73,74 @@ public class PlayerStatistics {
 
     PlayerStatistics(PlayerStatisticsData data, UUID uuid, CompoundTag nbt) {
         this(data, uuid);
-        readNbt(Registry.ITEM, usedItems, nbt.getCompound("usedItems"));
-        readNbt(Registry.ITEM, producedItems, nbt.getCompound("producedItems"));
-        readNbt(Registry.FLUID, usedFluids, nbt.getCompound("usedFluids"));
-        readNbt(Registry.FLUID, producedFluids, nbt.getCompound("producedFluids"));
-        pendingReadNbt(pendingCraftedStats, nbt.getCompound("pendingCraftedStats"));
+        if (nbt.getTagType("usedItems") == Tag.TAG_LONG_ARRAY) {
+            long gameTime = data.getGameTime();
+            List<Item> itemPalette = readPalette(Registry.ITEM, nbt.getList("itemPalette", Tag.TAG_STRING));
+            List<Fluid> fluidPalette = readPalette(Registry.FLUID, nbt.getList("fluidPalette", Tag.TAG_STRING));
+            readPacked(itemPalette, usedItems, nbt.getLongArray("usedItems"), gameTime);
+            readPacked(itemPalette, producedItems, nbt.getLongArray("producedItems"), gameTime);
+            readPacked(fluidPalette, usedFluids, nbt.getLongArray("usedFluids"), gameTime);
+            readPacked(fluidPalette, producedFluids, nbt.getLongArray("producedFluids"), gameTime);
+            pendingReadPacked(itemPalette, pendingCraftedStats, nbt.getLongArray("pendingCraftedStats"));
+        } else {
+            // Format with one compound per statistic, rewritten in the packed format on the next save.
+            readNbt(Registry.ITEM, usedItems, nbt.getCompound("usedItems"));
+            readNbt(Registry.ITEM, producedItems, nbt.getCompound("producedItems"));
+            readNbt(Registry.FLUID, usedFluids, nbt.getCompound("usedFluids"));
+            readNbt(Registry.FLUID, producedFluids, nbt.getCompound("producedFluids"));
+            pendingReadNbt(pendingCraftedStats, nbt.getCompound("pendingCraftedStats"));
+            dirty = true;
+        }
     }
 
+    /**
+     * Statistics are saved with a palette of the item and fluid ids, and a packed
+     * long array per statistic type: the palette index of each entry followed by
+     * its {@link StatisticValue#writePacked packed value}.
+     */
     public CompoundTag toTag() {
+        long gameTime = data.getGameTime();
+        Reference2IntMap<Item> itemPalette = new Reference2IntLinkedOpenHashMap<>();
+        Reference2IntMap<Fluid> fluidPalette = new Reference2IntLinkedOpenHashMap<>();
         CompoundTag nbt = new CompoundTag();
-        nbt.put("usedItems", toNbt(Registry.ITEM, usedItems));
-        nbt.put("producedItems", toNbt(Registry.ITEM, producedItems));
-        nbt.put("usedFluids", toNbt(Registry.FLUID, usedFluids));
-        nbt.put("producedFluids", toNbt(Registry.FLUID, producedFluids));
-        nbt.put("pendingCraftedStats", pendingToNbt(pendingCraftedStats));
+        nbt.putLongArray("usedItems", toPacked(itemPalette, usedItems, gameTime));
+        nbt.putLongArray("producedItems", toPacked(itemPalette, producedItems, gameTime));
+        nbt.putLongArray("usedFluids", toPacked(fluidPalette, usedFluids, gameTime));
+        nbt.putLongArray("producedFluids", toPacked(fluidPalette, producedFluids, gameTime));
+        nbt.putLongArray("pendingCraftedStats", pendingToPacked(itemPalette, pendingCraftedStats));
+        nbt.put("itemPalette", paletteToNbt(Registry.ITEM, itemPalette));
+        nbt.put("fluidPalette", paletteToNbt(Registry.FLUID, fluidPalette));
         return nbt;
     }
 
+    /**
+     * @return True if the statistics changed since the last call to
+     *         {@link #toTag}.
+     */
+    boolean isDirty() {
+        return dirty;
+    }
+
+    void setDirty(boolean dirty) {
+        this.dirty = dirty;
+    }
+
+    private void markDirty() {
+        if (!dirty) {
+            dirty = true;
+            if (data != null) {
+                data.setDirty();
+            }
+        }
+    }
+
     public void addUsedItems(ItemLike what, long amount) {
+        markDirty();
         usedItems.computeIfAbsent(what.asItem(), i -> new StatisticValue()).add(amount);
     }
 
     public void addProducedItems(ItemLike what, long amount) {
+        markDirty();
         var item = what.asItem();
         producedItems.computeIfAbsent(item, i -> new StatisticValue()).add(amount);
 
@@ -101,10 +156,12 @@ public class PlayerStatistics {
     }
 
     public void addUsedFluids(Fluid what, long amount) {
+        markDirty();
         usedFluids.computeIfAbsent(what, i -> new StatisticValue()).add(amount);
     }
 
     public void addProducedFluids(Fluid what, long amount) {
+        markDirty();
         producedFluids.computeIfAbsent(what, i -> new StatisticValue()).add(amount);
     }
 
@@ -117,6 +174,7 @@ public class PlayerStatistics {
             player.awardStat(Stats.ITEM_CRAFTED.get(what.asItem()), Ints.saturatedCast(amount));
         } else {
             pendingCraftedStats.mergeLong(what.asItem(), amount, Long::sum);
+            markDirty();
         }
     }
 
@@ -127,6 +185,7 @@ public class PlayerStatistics {
             }
 
             pendingCraftedStats.clear();
+            markDirty();
         }
     }
 
@@ -142,14 +201,76 @@ public class PlayerStatistics {
         }
     }
 
-    private static <T> CompoundTag toNbt(Registry<T> registry, Map<T, StatisticValue> map) {
-        CompoundTag tag = new CompoundTag();
-        for (var entry : map.entrySet()) {
-            tag.put(registry.getKey(entry.getKey()).toString(), entry.getValue().toNbt());
+    private static <T> List<T> readPalette(Registry<T> registry, ListTag tag) {
+        List<T> palette = new ArrayList<>(tag.size());
+        for (int i = 0; i < tag.size(); ++i) {
+            ResourceLocation id = ResourceLocation.tryParse(tag.getString(i));
+            // Unknown ids are kept as the default entry and skipped when reading the values.
+            palette.add(id == null ? null : registry.get(id));
+        }
+        return palette;
+    }
+
+    private static <T> ListTag paletteToNbt(Registry<T> registry, Reference2IntMap<T> palette) {
+        ListTag tag = new ListTag();
+        for (T entry : palette.keySet()) {
+            tag.add(StringTag.valueOf(registry.getKey(entry).toString()));
         }
         return tag;
     }
 
+    private static <T> int paletteIndex(Reference2IntMap<T> palette, T entry) {
+        if (!palette.containsKey(entry)) {
+            palette.put(entry, palette.size());
+        }
+        return palette.getInt(entry);
+    }
+
+    private static <T> void readPacked(List<T> palette, Map<T, StatisticValue> map, long[] packed, long gameTime) {
+        try {
+            for (int position = 0; position < packed.length;) {
+                T entry = palette.get((int) packed[position++]);
+                StatisticValue value = new StatisticValue();
+                position = value.readPacked(packed, position, gameTime);
+                if (entry != null && entry != Items.AIR && entry != Fluids.EMPTY) {
+                    map.put(entry, value);
+                }
+            }
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+    }
+
+    private static <T> long[] toPacked(Reference2IntMap<T> palette, Map<T, StatisticValue> map, long gameTime) {
+        LongArrayList packed = new LongArrayList();
+        for (var entry : map.entrySet()) {
+            packed.add(paletteIndex(palette, entry.getKey()));
+            entry.getValue().writePacked(packed, gameTime);
+        }
+        return packed.toLongArray();
+    }
+
+    private static void pendingReadPacked(List<Item> palette, Reference2LongMap<Item> map, long[] packed) {
+        for (int i = 0; i + 1 < packed.length; i += 2) {
+            int index = (int) packed[i];
+            if (index >= 0 && index < palette.size()) {
+                Item item = palette.get(index);
+                if (item != null && item != Items.AIR) {
+                    map.put(item, packed[i + 1]);
+                }
+            }
+        }
+    }
+
+    private static long[] pendingToPacked(Reference2IntMap<Item> palette, Reference2LongMap<Item> map) {
+        long[] packed = new long[2 * map.size()];
+        int i = 0;
+        for (var entry : map.reference2LongEntrySet()) {
+            packed[i++] = paletteIndex(palette, entry.getKey());
+            packed[i++] = entry.getLongValue();
+        }
+        return packed;
+    }
+
     private static void pendingReadNbt(Reference2LongMap<Item> map, CompoundTag tag) {
         for (var key : tag.getAllKeys()) {
             try {
@@ -161,12 +282,4 @@ public class PlayerStatistics {
             }
         }
     }
-
-    private static CompoundTag pendingToNbt(Reference2LongMap<Item> map) {
-        CompoundTag tag = new CompoundTag();
-        for (var entry : map.reference2LongEntrySet()) {
-            tag.putLong(Registry.ITEM.getKey(entry.getKey()).toString(), entry.getLongValue());
-        }
-        return tag;
-    }
 }
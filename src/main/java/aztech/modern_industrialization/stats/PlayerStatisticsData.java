@@ -35,17 +35,42 @@ import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.player.Player;
 
 public class PlayerStatisticsData extends MISavedData {
+    private final ServerLevel overworld;
     private final Map<UUID, PlayerStatistics> stats = new HashMap<>();
     private final Function<UUID, PlayerStatistics> statsFactory = uuid -> new PlayerStatistics(this, uuid);
 
-    private PlayerStatisticsData(CompoundTag tag) {
+    /**
+     * Last saved tag of each player, reused while their statistics don't change.
+     * The tag records the game time at which it was written, so the rates still
+     * roll forward from that time when it is loaded.
+     */
+    private final Map<UUID, CompoundTag> savedTags = new HashMap<>();
+
+    private PlayerStatisticsData(ServerLevel overworld, CompoundTag tag) {
+        this.overworld = overworld;
         for (var key : tag.getAllKeys()) {
             var uuid = UUID.fromString(key);
-            stats.put(uuid, new PlayerStatistics(this, uuid, tag.getCompound(key)));
+            var playerStats = new PlayerStatistics(this, uuid, tag.getCompound(key));
+            stats.put(uuid, playerStats);
+            if (playerStats.isDirty()) {
+                // Loaded from an older format.
+                setDirty();
+            } else {
+                savedTags.put(uuid, tag.getCompound(key));
+            }
         }
     }
 
-    private PlayerStatisticsData() {
+    private PlayerStatisticsData(ServerLevel overworld) {
+        this.overworld = overworld;
+    }
+
+    /**
+     * @return The overworld game time, which is saved with the statistics so that
+     *         their rates can be rolled forward when they are loaded again.
+     */
+    long getGameTime() {
+        return overworld.getGameTime();
     }
 
     public PlayerStatistics get(UUID uuid) {
@@ -57,15 +82,21 @@ public class PlayerStatisticsData extends MISavedData {
         return get(player.getUUID());
     }
 
-    @Override
-    public boolean isDirty() {
-        return true;
-    }
-
+    /**
+     * The data is marked dirty when the statistics of a player change, and only
+     * the players whose statistics changed are serialized again.
+     */
     @Override
     public CompoundTag save(CompoundTag tag) {
         for (var entry : stats.entrySet()) {
-            tag.put(entry.getKey().toString(), entry.getValue().toTag());
+            var playerStats = entry.getValue();
+            var playerTag = savedTags.get(entry.getKey());
+            if (playerTag == null || playerStats.isDirty()) {
+                playerTag = playerStats.toTag();
+                savedTags.put(entry.getKey(), playerTag);
+                playerStats.setDirty(false);
+            }
+            tag.put(entry.getKey().toString(), playerTag);
         }
         return tag;
     }
@@ -75,6 +106,7 @@ public class PlayerStatisticsData extends MISavedData {
     public static PlayerStatisticsData get(MinecraftServer server) {
         var overworld = server.getLevel(ServerLevel.OVERWORLD);
         Objects.requireNonNull(overworld, "Couldn't find overworld");
-        return overworld.getDataStorage().computeIfAbsent(PlayerStatisticsData::new, PlayerStatisticsData::new, NAME);
+        return overworld.getDataStorage().computeIfAbsent(tag -> new PlayerStatisticsData(overworld, tag),
+                () -> new PlayerStatisticsData(overworld), NAME);
     }
 }
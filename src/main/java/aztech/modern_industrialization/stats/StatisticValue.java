@@ -24,65 +24,206 @@
 package aztech.modern_industrialization.stats;
 
 import aztech.modern_industrialization.util.TickHelper;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.util.Arrays;
 import net.minecraft.nbt.CompoundTag;
+import org.jetbrains.annotations.Nullable;
 
+/**
+ * A statistic, with its all-time total and a history of totals for each
+ * {@link StatisticsRate}, stored in ring buffers of time buckets. Buckets of
+ * elapsed periods are only cleared when the value is next accessed, so adding
+ * to the statistic is usually a few array writes. Loaded values whose rates
+ * are all zero don't allocate any bucket until they are added to.
+ */
 public class StatisticValue {
+    private static final int MASK_LONGS = (StatisticsRate.TOTAL_BUCKETS + 63) / 64;
+
     private long allTime = 0;
-    private final long[] pastRates = new long[StatisticsRate.COUNT];
-    private final long[] currentRates = new long[StatisticsRate.COUNT];
-    private final int[] remainingTicks = new int[StatisticsRate.COUNT];
-    private long lastTick = 0;
+    /**
+     * Allocated on the first non-zero bucket.
+     */
+    @Nullable
+    private long[] buckets = null;
+    /**
+     * Index of the current bucket of each rate in {@link #buckets}.
+     */
+    private final int[] currentBuckets = new int[StatisticsRate.COUNT];
+    /**
+     * Tick at which the buckets of all rates are at position 0.
+     */
+    private long origin;
+    private long lastTick;
 
     public StatisticValue() {
+        this.origin = TickHelper.getCurrentTick();
+        this.lastTick = origin;
+        updateCurrentBuckets();
     }
 
+    /**
+     * Read the format used before {@link #writePacked}.
+     */
     public StatisticValue(CompoundTag nbt) {
+        long currentTick = TickHelper.getCurrentTick();
         allTime = nbt.getLong("at");
-        for (var rate : StatisticsRate.values()) {
-            pastRates[rate.id] = nbt.getLong("p" + rate.id);
-            currentRates[rate.id] = nbt.getLong("c" + rate.id);
-            remainingTicks[rate.id] = nbt.getInt("r" + rate.id);
+
+        if (nbt.contains("b")) {
+            long[] saved = nbt.getLongArray("b");
+            if (saved.length == StatisticsRate.TOTAL_BUCKETS) {
+                buckets = saved;
+            }
+            origin = currentTick - nbt.getInt("ph");
+        } else {
+            // Format with only the current and previous total of each rate.
+            origin = currentTick;
+            buckets = new long[StatisticsRate.TOTAL_BUCKETS];
+            for (var rate : StatisticsRate.VALUES) {
+                buckets[rate.bucketOffset] = nbt.getLong("c" + rate.id);
+                buckets[rate.bucketOffset + rate.bucketCount - 1] = nbt.getLong("p" + rate.id);
+            }
+        }
+        lastTick = currentTick;
+        updateCurrentBuckets();
+    }
+
+    /**
+     * Append the packed form of this value: the game time at which it is written,
+     * its position in the bucket cycle, the all-time total, bitmasks of the
+     * non-zero buckets and then their values.
+     */
+    void writePacked(LongArrayList out, long gameTime) {
+        updateRates();
+        out.add(gameTime);
+        out.add((lastTick - origin) % StatisticsRate.CYCLE_TICKS);
+        out.add(allTime);
+        int maskStart = out.size();
+        for (int i = 0; i < MASK_LONGS; ++i) {
+            out.add(0);
+        }
+        for (int i = 0; buckets != null && i < buckets.length; ++i) {
+            if (buckets[i] != 0) {
+                out.set(maskStart + i / 64, out.getLong(maskStart + i / 64) | (1L << (i % 64)));
+                out.add(buckets[i]);
+            }
         }
-        lastTick = TickHelper.getCurrentTick();
     }
 
-    public CompoundTag toNbt() {
-        CompoundTag nbt = new CompoundTag();
-        nbt.putLong("at", allTime);
-        for (var rate : StatisticsRate.values()) {
-            nbt.putLong("p" + rate.id, pastRates[rate.id]);
-            nbt.putLong("c" + rate.id, currentRates[rate.id]);
-            nbt.putInt("r" + rate.id, remainingTicks[rate.id]);
+    /**
+     * Read a value written by {@link #writePacked}. The buckets are rolled forward
+     * by the game time that elapsed since the value was written, so that the
+     * periods that went by while the server was stopped are cleared.
+     *
+     * @return The position after the value.
+     */
+    int readPacked(long[] packed, int position, long gameTime) {
+        long elapsed = Math.max(0, gameTime - packed[position++]);
+        lastTick = TickHelper.getCurrentTick() - elapsed;
+        origin = lastTick - packed[position++];
+        allTime = packed[position++];
+        int maskStart = position;
+        position += MASK_LONGS;
+        for (int i = 0; i < StatisticsRate.TOTAL_BUCKETS; ++i) {
+            if ((packed[maskStart + i / 64] & (1L << (i % 64))) != 0) {
+                if (buckets == null) {
+                    buckets = new long[StatisticsRate.TOTAL_BUCKETS];
+                }
+                buckets[i] = packed[position++];
+            }
         }
-        return nbt;
+        updateCurrentBuckets();
+        updateRates();
+        return position;
     }
 
     public void add(long toAdd) {
         updateRates();
 
         allTime += toAdd;
-        for (var rate : StatisticsRate.values()) {
-            currentRates[rate.id] += toAdd;
+        if (buckets == null) {
+            buckets = new long[StatisticsRate.TOTAL_BUCKETS];
+        }
+        for (int bucket : currentBuckets) {
+            buckets[bucket] += toAdd;
         }
     }
 
+    /**
+     * Move to the current tick, clearing the buckets of the periods that have
+     * elapsed since the last access.
+     */
     public void updateRates() {
-        long tickDiff = TickHelper.getCurrentTick() - lastTick;
-        if (tickDiff > 0) {
-            for (var rate : StatisticsRate.values()) {
-                int i = rate.id;
-                if (tickDiff < remainingTicks[i]) {
-                    remainingTicks[i] -= tickDiff;
-                } else if (tickDiff < rate.ticks + remainingTicks[i]) {
-                    pastRates[i] = currentRates[i];
-                    currentRates[i] = 0;
-                    remainingTicks[i] = rate.ticks - ((int) tickDiff - remainingTicks[i]);
-                } else {
-                    pastRates[i] = 0;
-                    currentRates[i] = 0;
-                    remainingTicks[i] = rate.ticks;
+        long currentTick = TickHelper.getCurrentTick();
+        // All rates are in whole seconds, so nothing changes within a second.
+        if ((currentTick - origin) / 20 == (lastTick - origin) / 20) {
+            return;
+        }
+        if (buckets != null) {
+            for (var rate : StatisticsRate.VALUES) {
+                long lastPeriod = (lastTick - origin) / rate.ticks;
+                long elapsedPeriods = Math.min((currentTick - origin) / rate.ticks - lastPeriod, rate.bucketCount);
+                for (long period = lastPeriod + 1; period <= lastPeriod + elapsedPeriods; ++period) {
+                    buckets[rate.bucketOffset + (int) (period % rate.bucketCount)] = 0;
                 }
             }
         }
+        lastTick = currentTick;
+        updateCurrentBuckets();
+    }
+
+    private void updateCurrentBuckets() {
+        for (var rate : StatisticsRate.VALUES) {
+            currentBuckets[rate.id] = rate.bucketOffset + (int) ((lastTick - origin) / rate.ticks % rate.bucketCount);
+        }
+    }
+
+    public long getAllTime() {
+        return allTime;
+    }
+
+    /**
+     * @return The total of the last complete period of the rate, for example the
+     *         previous second.
+     */
+    public long getLast(StatisticsRate rate) {
+        updateRates();
+        if (buckets == null) {
+            return 0;
+        }
+        int previous = currentBuckets[rate.id] == rate.bucketOffset ? rate.bucketOffset + rate.bucketCount - 1 : currentBuckets[rate.id] - 1;
+        return buckets[previous];
+    }
+
+    /**
+     * @return The total of the current, incomplete period of the rate.
+     */
+    public long getCurrent(StatisticsRate rate) {
+        updateRates();
+        return buckets == null ? 0 : buckets[currentBuckets[rate.id]];
+    }
+
+    /**
+     * Copy the history of a rate to {@code series}, from the oldest to the
+     * current period. For example, the totals of each of the last 60 seconds for
+     * {@link StatisticsRate#LAST_SECOND}.
+     *
+     * @param series Array of length at least {@code rate.bucketCount}.
+     */
+    public void getSeries(StatisticsRate rate, long[] series) {
+        updateRates();
+        if (buckets == null) {
+            Arrays.fill(series, 0, rate.bucketCount, 0);
+            return;
+        }
+        int current = currentBuckets[rate.id] - rate.bucketOffset;
+        for (int i = 0; i < rate.bucketCount; ++i) {
+            series[i] = buckets[rate.bucketOffset + (current + 1 + i) % rate.bucketCount];
+        }
+    }
+
+    public long[] getSeries(StatisticsRate rate) {
+        long[] series = new long[rate.bucketCount];
+        getSeries(rate, series);
+        return series;
     }
 }
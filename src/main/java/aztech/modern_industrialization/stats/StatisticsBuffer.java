@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Azercoco & Technici4n
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package aztech.modern_industrialization.stats;
+
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.level.ItemLike;
+import net.minecraft.world.level.material.Fluid;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Statistics recorded by machines, buffered per player and added to the
+ * {@link PlayerStatistics} once per second. Adding to the statistics directly
+ * also notifies FTB Quests and awards vanilla stats, which is too expensive to
+ * do for every crafted item.
+ *
+ * <p>
+ * Must only be used on the server thread. Call {@link #flush} before reading
+ * the statistics of a player.
+ */
+public class StatisticsBuffer {
+    private static final int FLUSH_INTERVAL = 20;
+    private static final Map<UUID, StatisticsBuffer> buffers = new HashMap<>();
+    private static final StatisticsBuffer DUMMY = new StatisticsBuffer(null);
+
+    @Nullable
+    private final UUID uuid;
+    private final Reference2LongOpenHashMap<Item> usedItems = new Reference2LongOpenHashMap<>(), producedItems = new Reference2LongOpenHashMap<>();
+    private final Reference2LongOpenHashMap<Fluid> usedFluids = new Reference2LongOpenHashMap<>(),
+            producedFluids = new Reference2LongOpenHashMap<>();
+    private boolean empty = true;
+
+    private StatisticsBuffer(@Nullable UUID uuid) {
+        this.uuid = uuid;
+    }
+
+    public static void init() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (server.getTickCount() % FLUSH_INTERVAL == 0) {
+                flushAll(server);
+            }
+        });
+        // Stopping is fired before the final save.
+        ServerLifecycleEvents.SERVER_STOPPING.register(StatisticsBuffer::flushAll);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> buffers.clear());
+    }
+
+    /**
+     * @return The buffer of a player, or a buffer that ignores the statistics if the
+     *         uuid is null.
+     */
+    public static StatisticsBuffer get(@Nullable UUID uuid) {
+        if (uuid == null) {
+            return DUMMY;
+        }
+        return buffers.computeIfAbsent(uuid, StatisticsBuffer::new);
+    }
+
+    public void addUsedItems(ItemLike what, long amount) {
+        add(usedItems, what.asItem(), amount);
+    }
+
+    public void addProducedItems(ItemLike what, long amount) {
+        add(producedItems, what.asItem(), amount);
+    }
+
+    public void addUsedFluids(Fluid what, long amount) {
+        add(usedFluids, what, amount);
+    }
+
+    public void addProducedFluids(Fluid what, long amount) {
+        add(producedFluids, what, amount);
+    }
+
+    private <T> void add(Reference2LongOpenHashMap<T> map, T what, long amount) {
+        if (uuid != null) {
+            map.addTo(what, amount);
+            empty = false;
+        }
+    }
+
+    /**
+     * Add the buffered statistics of a player to their {@link PlayerStatistics}.
+     */
+    public static void flush(MinecraftServer server, UUID uuid) {
+        StatisticsBuffer buffer = buffers.get(uuid);
+        if (buffer != null && !buffer.empty) {
+            buffer.flushTo(PlayerStatisticsData.get(server));
+        }
+    }
+
+    public static void flushAll(MinecraftServer server) {
+        PlayerStatisticsData data = null;
+        for (StatisticsBuffer buffer : buffers.values()) {
+            if (!buffer.empty) {
+                if (data == null) {
+                    data = PlayerStatisticsData.get(server);
+                }
+                buffer.flushTo(data);
+            }
+        }
+    }
+
+    private void flushTo(PlayerStatisticsData data) {
+        PlayerStatistics stats = data.get(uuid);
+        for (Reference2LongMap.Entry<Item> entry : usedItems.reference2LongEntrySet()) {
+            stats.addUsedItems(entry.getKey(), entry.getLongValue());
+        }
+        for (Reference2LongMap.Entry<Item> entry : producedItems.reference2LongEntrySet()) {
+            stats.addProducedItems(entry.getKey(), entry.getLongValue());
+        }
+        for (Reference2LongMap.Entry<Fluid> entry : usedFluids.reference2LongEntrySet()) {
+            stats.addUsedFluids(entry.getKey(), entry.getLongValue());
+        }
+        for (Reference2LongMap.Entry<Fluid> entry : producedFluids.reference2LongEntrySet()) {
+            stats.addProducedFluids(entry.getKey(), entry.getLongValue());
+        }
+        // Keep the allocated tables, the same items are usually produced again.
+        usedItems.clear();
+        producedItems.clear();
+        usedFluids.clear();
+        producedFluids.clear();
+        empty = true;
+    }
+}
@@ -23,19 +23,56 @@
  */
 package aztech.modern_industrialization.stats;
 
+/**
+ * Granularities of the statistics history: each rate keeps the totals of its
+ * last {@link #bucketCount} periods of {@link #ticks} ticks.
+ */
 public enum StatisticsRate {
-    LAST_SECOND(0, 20),
-    LAST_MINUTE(1, 20 * 60),
-    LAST_HOUR(2, 20 * 60 * 60),
+    LAST_SECOND(0, 20, 60),
+    LAST_MINUTE(1, 20 * 60, 60),
+    LAST_HOUR(2, 20 * 60 * 60, 24),
     ;
 
     public static final int COUNT = 3;
+    /**
+     * Cached {@code values()}, which allocates a new array every time. Must not be
+     * modified.
+     */
+    static final StatisticsRate[] VALUES = values();
+    static final int TOTAL_BUCKETS;
+    /**
+     * Number of ticks after which the buckets of all rates are back at the same
+     * position.
+     */
+    static final int CYCLE_TICKS;
 
     public final int id;
     public final int ticks;
+    public final int bucketCount;
+    /**
+     * Index of the first bucket of this rate in the bucket array of a
+     * {@link StatisticValue}.
+     */
+    int bucketOffset;
+
+    static {
+        int offset = 0;
+        int cycle = 1;
+        for (StatisticsRate rate : VALUES) {
+            rate.bucketOffset = offset;
+            offset += rate.bucketCount;
+            if ((rate.ticks * rate.bucketCount) % cycle != 0) {
+                throw new IllegalStateException("Statistics rate cycles must be multiples of each other");
+            }
+            cycle = rate.ticks * rate.bucketCount;
+        }
+        TOTAL_BUCKETS = offset;
+        CYCLE_TICKS = cycle;
+    }
 
-    StatisticsRate(int id, int ticks) {
+    StatisticsRate(int id, int ticks, int bucketCount) {
         this.id = id;
         this.ticks = ticks;
+        this.bucketCount = bucketCount;
     }
 }